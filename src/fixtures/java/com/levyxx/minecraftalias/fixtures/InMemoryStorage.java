@@ -0,0 +1,44 @@
+package com.levyxx.minecraftalias.fixtures;
+
+import com.levyxx.minecraftalias.AliasManager.AliasRecord;
+import com.levyxx.minecraftalias.storage.AliasStorage;
+import com.levyxx.minecraftalias.storage.StoredAliases;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Storage that serves a fixed table and discards writes, so measurements include no I/O.
+ */
+public final class InMemoryStorage implements AliasStorage {
+    private final Map<String, String> aliases;
+
+    public InMemoryStorage(Map<String, String> aliases) {
+        this.aliases = aliases;
+    }
+
+    @Override
+    public StoredAliases load() {
+        return StoredAliases.unvalidated(aliases);
+    }
+
+    @Override
+    public void aliasAdded(AliasRecord record, Collection<AliasRecord> table) {
+    }
+
+    @Override
+    public void aliasRemoved(AliasRecord record, Collection<AliasRecord> table) {
+    }
+
+    @Override
+    public void save(Collection<AliasRecord> table) {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,126 @@
+package com.levyxx.minecraftalias.fixtures;
+
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.logging.Logger;
+
+/**
+ * Bukkit stand-ins for running the plugin without a server, shared by the tests, the benchmarks and the
+ * load replay: a server whose online players are the ones created here, a scheduler that runs tasks in
+ * place, a plugin manager that ignores registrations, and the plugin itself. Players accept every command and
+ * permission. Methods not stubbed return null, false or zero.
+ */
+public final class StubServer {
+    private final Logger logger;
+    private final Map<String, Player> players = new ConcurrentHashMap<>();
+    private final PluginManager pluginManager;
+    private final BukkitScheduler scheduler;
+    private final Server server;
+    private final Plugin plugin;
+
+    public StubServer(Logger logger) {
+        this.logger = logger;
+        this.pluginManager = stub(PluginManager.class, (method, args) -> defaultValue(method.getReturnType()));
+        this.scheduler = stub(BukkitScheduler.class, (method, args) -> {
+            if (method.getName().startsWith("runTask") && args != null) {
+                for (Object arg : args) {
+                    if (arg instanceof Runnable task) {
+                        task.run();
+                    }
+                }
+            }
+            return defaultValue(method.getReturnType());
+        });
+        this.server = stub(Server.class, (method, args) -> switch (method.getName()) {
+            case "getPluginManager" -> pluginManager;
+            case "getScheduler" -> scheduler;
+            case "getOnlinePlayers" -> List.copyOf(players.values());
+            case "getPlayerExact" -> players.get(((String) args[0]).toLowerCase(Locale.ROOT));
+            case "getLogger" -> logger;
+            case "isPrimaryThread" -> true;
+            default -> defaultValue(method.getReturnType());
+        });
+        this.plugin = stub(Plugin.class, (method, args) -> switch (method.getName()) {
+            case "getServer" -> server;
+            case "getLogger" -> logger;
+            case "getName" -> "MinecraftAlias";
+            case "isEnabled" -> true;
+            default -> defaultValue(method.getReturnType());
+        });
+    }
+
+    public Server server() {
+        return server;
+    }
+
+    public Plugin plugin() {
+        return plugin;
+    }
+
+    /**
+     * The online player named {@code name}, created on first use.
+     */
+    public Player player(String name) {
+        return players.computeIfAbsent(name.toLowerCase(Locale.ROOT), key -> {
+            UUID uuid = UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+            return stub(Player.class, (method, args) -> switch (method.getName()) {
+                case "getName", "getDisplayName" -> name;
+                case "getUniqueId" -> uuid;
+                case "getServer" -> server;
+                case "performCommand", "hasPermission", "isOnline" -> true;
+                default -> defaultValue(method.getReturnType());
+            });
+        });
+    }
+
+    private static <T> T stub(Class<T> type, BiFunction<Method, Object[], Object> handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> type.getSimpleName();
+                    default -> handler.apply(method, args);
+                }));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == float.class) {
+            return 0F;
+        }
+        if (type == double.class) {
+            return 0D;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+}
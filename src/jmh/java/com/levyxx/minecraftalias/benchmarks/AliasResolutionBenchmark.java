@@ -0,0 +1,63 @@
+package com.levyxx.minecraftalias.benchmarks;
+
+import com.levyxx.minecraftalias.AliasManager;
+import com.levyxx.minecraftalias.CommandTokens;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link AliasManager#resolveCommand(CommandTokens)} for hits, misses and multi-hop chains.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AliasResolutionBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int aliasCount;
+
+    private AliasManager manager;
+    private String hit;
+    private String hitWithArguments;
+
+    @Setup
+    public void setUp() {
+        manager = BenchmarkFixtures.manager(BenchmarkFixtures.aliases(aliasCount));
+        hit = "warp w" + (aliasCount / 2);
+        hitWithArguments = hit + " extra  arguments";
+    }
+
+    @Benchmark
+    public Optional<String> hit() {
+        return manager.resolveCommand(CommandTokens.scratch(hit, 0));
+    }
+
+    @Benchmark
+    public Optional<String> hitWithArguments() {
+        return manager.resolveCommand(CommandTokens.scratch(hitWithArguments, 0));
+    }
+
+    @Benchmark
+    public Optional<String> miss() {
+        return manager.resolveCommand(CommandTokens.scratch("gamemode creative Steve", 0));
+    }
+
+    @Benchmark
+    public Optional<String> chain() {
+        return manager.resolveCommand(CommandTokens.scratch("chain0 now", 0));
+    }
+}
@@ -0,0 +1,51 @@
+package com.levyxx.minecraftalias.benchmarks;
+
+import com.levyxx.minecraftalias.AliasManager;
+import com.levyxx.minecraftalias.fixtures.InMemoryStorage;
+import com.levyxx.minecraftalias.fixtures.StubServer;
+import org.bukkit.entity.Player;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Alias tables and players shared by the benchmarks.
+ */
+final class BenchmarkFixtures {
+    static final Logger LOGGER = Logger.getLogger("MinecraftAlias-Benchmark");
+    static final int CHAIN_DEPTH = 5;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Generates {@code count} single-hop warp aliases plus a {@link #CHAIN_DEPTH}-hop chain starting at
+     * {@code chain0} and a placeholder alias {@code greet}.
+     */
+    static Map<String, String> aliases(int count) {
+        Map<String, String> aliases = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            aliases.put("warp w" + i, "tp @s " + i + " 64 " + i);
+        }
+        for (int i = 0; i < CHAIN_DEPTH; i++) {
+            aliases.put("chain" + i, i + 1 < CHAIN_DEPTH ? "chain" + (i + 1) : "say chain done");
+        }
+        aliases.put("greet", "msg %player% welcome back, %displayname%");
+        return aliases;
+    }
+
+    static AliasManager manager(Map<String, String> aliases) {
+        AliasManager manager = new AliasManager(new InMemoryStorage(aliases), LOGGER);
+        manager.reload();
+        return manager;
+    }
+
+    /**
+     * A player alone on a server of their own. {@code PlayerCommandPreprocessEvent} asks the server for
+     * its online players, so the server has to be there.
+     */
+    static Player player(String name) {
+        return new StubServer(LOGGER).player(name);
+    }
+}
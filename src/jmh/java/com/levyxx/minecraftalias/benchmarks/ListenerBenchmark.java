@@ -0,0 +1,54 @@
+package com.levyxx.minecraftalias.benchmarks;
+
+import com.levyxx.minecraftalias.listeners.AliasListener;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-command overhead {@link AliasListener#onPlayerCommand(PlayerCommandPreprocessEvent)} adds, including
+ * tokenizing the raw message and player placeholder substitution.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListenerBenchmark {
+    @Param({"1000"})
+    public int aliasCount;
+
+    @Param({"/warp w42", "/greet", "/chain0", "/gamemode creative Steve"})
+    public String message;
+
+    private AliasListener listener;
+    private PlayerCommandPreprocessEvent event;
+
+    @Setup
+    public void setUp() {
+        listener = new AliasListener(BenchmarkFixtures.manager(BenchmarkFixtures.aliases(aliasCount)));
+        Player player = BenchmarkFixtures.player("Steve");
+        event = new PlayerCommandPreprocessEvent(player, message);
+    }
+
+    @Benchmark
+    public boolean onPlayerCommand() {
+        event.setMessage(message);
+        event.setCancelled(false);
+        listener.onPlayerCommand(event);
+        return event.isCancelled();
+    }
+}
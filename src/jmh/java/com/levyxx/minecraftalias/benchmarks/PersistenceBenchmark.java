@@ -0,0 +1,94 @@
+package com.levyxx.minecraftalias.benchmarks;
+
+import com.levyxx.minecraftalias.AliasManager;
+import com.levyxx.minecraftalias.AliasManager.AliasRecord;
+import com.levyxx.minecraftalias.storage.BinarySnapshotStorage;
+import com.levyxx.minecraftalias.storage.StoredAliases;
+import com.levyxx.minecraftalias.storage.YamlAliasStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Write/parse round-trips through the YAML backend and startup loads through the binary snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceBenchmark {
+    @Param({"100", "10000"})
+    public int aliasCount;
+
+    private Path directory;
+    private YamlAliasStorage yaml;
+    private List<AliasRecord> records;
+    private BinarySnapshotStorage snapshot;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("minecraft-alias-bench");
+        yaml = new YamlAliasStorage(directory.resolve("config.yml").toFile(), BenchmarkFixtures.LOGGER, 0L);
+        records = BenchmarkFixtures.manager(BenchmarkFixtures.aliases(aliasCount)).listAliases();
+        yaml.write(records);
+
+        // The snapshot gets its own directory so the YAML round-trip cannot invalidate it. Closing the
+        // first instance writes aliases.bin; the second one then loads the snapshot.
+        Path snapshotConfig = Files.createDirectory(directory.resolve("snapshot")).resolve("config.yml");
+        Files.copy(directory.resolve("config.yml"), snapshotConfig);
+        BinarySnapshotStorage seed = snapshotStorage(snapshotConfig);
+        new AliasManager(seed, BenchmarkFixtures.LOGGER).reload();
+        seed.close();
+        snapshot = snapshotStorage(snapshotConfig);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        yaml.close();
+        snapshot.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Loads through the storage rather than reloading a manager, which would find the file unchanged
+     * after the first invocation and skip straight past the table it parsed.
+     */
+    @Benchmark
+    public StoredAliases yamlRoundTrip() throws IOException {
+        yaml.write(records);
+        return yaml.load();
+    }
+
+    @Benchmark
+    public StoredAliases binarySnapshotLoad() throws IOException {
+        return snapshot.load();
+    }
+
+    private static BinarySnapshotStorage snapshotStorage(Path configFile) {
+        YamlAliasStorage source = new YamlAliasStorage(configFile.toFile(), BenchmarkFixtures.LOGGER, 0L);
+        return new BinarySnapshotStorage(source, configFile, BenchmarkFixtures.LOGGER);
+    }
+}
@@ -0,0 +1,150 @@
+package com.levyxx.minecraftalias.load;
+
+import com.levyxx.minecraftalias.AliasManager;
+import com.levyxx.minecraftalias.AliasManager.AliasRecord;
+import com.levyxx.minecraftalias.fixtures.StubServer;
+import com.levyxx.minecraftalias.storage.YamlAliasStorage;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.logging.Logger;
+
+/**
+ * Inputs of a headless replay: the simulated players on a {@link StubServer}, and the alias tables and
+ * command logs to replay.
+ */
+final class LoadFixtures {
+    static final String FIRST_PATTERN = "tpa";
+    static final String SECOND_PATTERN = "pay";
+    private static final int SYNTHETIC_LOG_SIZE = 1 << 16;
+    private static final String ISSUED_COMMAND = " issued server command: ";
+
+    private final Logger logger;
+    private final StubServer server;
+    private final List<Player> simulated = new ArrayList<>();
+
+    LoadFixtures(int playerCount, Logger logger) {
+        this.logger = logger;
+        this.server = new StubServer(logger);
+        for (int i = 0; i < playerCount; i++) {
+            simulated.add(player("Player" + i));
+        }
+    }
+
+    Plugin plugin() {
+        return server.plugin();
+    }
+
+    Player player(String name) {
+        return server.player(name);
+    }
+
+    /**
+     * {@code count} warp aliases, each the head of a chain of {@code chainDepth} hops ending in a teleport
+     * or a placeholder message, plus two pattern aliases.
+     */
+    static Map<String, String> aliases(LoadOptions options) {
+        Map<String, String> aliases = new LinkedHashMap<>();
+        for (int i = 0; i < options.aliases(); i++) {
+            String target = i % 10 == 0 ? "msg %player% arrived at w" + i : "tp @s " + i + " 64 " + i;
+            aliases.put("warp w" + i, options.chainDepth() == 1 ? target : "hop1 w" + i);
+            for (int hop = 1; hop < options.chainDepth(); hop++) {
+                aliases.put("hop" + hop + " w" + i, hop + 1 < options.chainDepth() ? "hop" + (hop + 1) + " w" + i : target);
+            }
+        }
+        aliases.put(FIRST_PATTERN + " {target:player}", "tp %player% {target}");
+        aliases.put(SECOND_PATTERN + " {to:player} {amount:int}", "eco pay {to} {amount}");
+        return aliases;
+    }
+
+    /**
+     * The {@code aliases} section of a {@code config.yml}.
+     */
+    Map<String, String> readAliases(Path configFile) throws IOException {
+        YamlAliasStorage storage = new YamlAliasStorage(configFile.toFile(), logger, 0L);
+        try {
+            return storage.load().entries();
+        } finally {
+            storage.close();
+        }
+    }
+
+    /**
+     * Commands of the simulated players. With the synthetic aliases, hits are chain heads (some with a
+     * trailing argument) and pattern commands; with aliases read from a file, hits invoke random literal
+     * aliases. Misses are split between a command that is not an alias and an alias root with unknown
+     * arguments.
+     */
+    List<LogEntry> syntheticLog(LoadOptions options, AliasManager manager) {
+        List<String> literal = new ArrayList<>();
+        if (options.aliasFile() != null) {
+            for (AliasRecord record : manager.listAliases()) {
+                if (!record.isPattern()) {
+                    literal.add(record.alias());
+                }
+            }
+        }
+        String missRoot = literal.isEmpty() ? "warp" : literal.get(0).split(" ")[0];
+
+        Random random = new Random(42L);
+        List<LogEntry> log = new ArrayList<>(SYNTHETIC_LOG_SIZE);
+        for (int i = 0; i < SYNTHETIC_LOG_SIZE; i++) {
+            Player player = simulated.get(random.nextInt(simulated.size()));
+            String message;
+            if (random.nextDouble() >= options.hitRatio()) {
+                message = random.nextBoolean() ? "/gamemode creative" : "/" + missRoot + " nowhere" + random.nextInt(options.aliases());
+            } else if (!literal.isEmpty()) {
+                message = "/" + literal.get(random.nextInt(literal.size()));
+            } else {
+                String other = simulated.get(random.nextInt(simulated.size())).getName();
+                message = switch (random.nextInt(10)) {
+                    case 0 -> "/" + FIRST_PATTERN + " " + other;
+                    case 1 -> "/" + SECOND_PATTERN + " " + other + " " + random.nextInt(1000);
+                    case 2 -> "/warp w" + random.nextInt(options.aliases()) + " now";
+                    default -> "/warp w" + random.nextInt(options.aliases());
+                };
+            }
+            log.add(new LogEntry(player, message));
+        }
+        return log;
+    }
+
+    /**
+     * Commands recorded one per line, either as typed ({@code /warp spawn}, sent by the simulated players
+     * in turn) or as the server logs them ({@code ... Steve issued server command: /warp spawn}, sent by
+     * that player). Blank lines and lines starting with {@code #} are skipped.
+     */
+    List<LogEntry> readLog(Path file) throws IOException {
+        List<LogEntry> log = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            int marker = trimmed.indexOf(ISSUED_COMMAND);
+            if (marker < 0) {
+                log.add(new LogEntry(simulated.get(log.size() % simulated.size()), trimmed));
+                continue;
+            }
+            String before = trimmed.substring(0, marker);
+            String name = before.substring(before.lastIndexOf(' ') + 1);
+            log.add(new LogEntry(player(name), trimmed.substring(marker + ISSUED_COMMAND.length())));
+        }
+        if (log.isEmpty()) {
+            throw new IOException("No commands in " + file);
+        }
+        return log;
+    }
+
+    record LogEntry(Player player, String message) { }
+
+}
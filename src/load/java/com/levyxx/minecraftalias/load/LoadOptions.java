@@ -0,0 +1,74 @@
+package com.levyxx.minecraftalias.load;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Settings of a replay, given as {@code key=value} arguments.
+ *
+ * @param aliases      number of synthetic warp aliases, each the head of a chain
+ * @param chainDepth   hops of every synthetic chain, 1 for plain aliases
+ * @param hitRatio     share of synthetic commands that resolve to an alias
+ * @param players      number of simulated players sending commands
+ * @param threads      replay threads
+ * @param rate         target commands per second over all threads, 0 to replay as fast as possible
+ * @param warmupSeconds replay time before measuring
+ * @param seconds      measured replay time
+ * @param mutations    admin {@code /alias add} and {@code /alias remove} commands per second
+ * @param log          recorded command log to replay instead of synthetic commands, or null
+ * @param aliasFile    {@code config.yml} whose {@code aliases} section replaces the synthetic aliases, or null
+ * @param maxP99Micros fail the run when the p99 latency exceeds this, 0 for no limit
+ * @param report       file the JSON report is written to, or null
+ */
+record LoadOptions(int aliases, int chainDepth, double hitRatio, int players, int threads, int rate, int warmupSeconds,
+                   int seconds, int mutations, Path log, Path aliasFile, long maxP99Micros, Path report) {
+    private static final Set<String> KEYS = Set.of("aliases", "chain-depth", "hit-ratio", "players", "threads", "rate",
+            "warmup", "duration", "mutations", "log", "alias-file", "max-p99-us", "report");
+
+    static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (arg.isBlank()) {
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            String key = separator < 0 ? arg : arg.substring(0, separator);
+            if (separator < 0 || !KEYS.contains(key)) {
+                throw new IllegalArgumentException("Unknown argument '" + arg + "'. Expected key=value with a key of " + KEYS);
+            }
+            values.put(key, arg.substring(separator + 1));
+        }
+
+        LoadOptions options = new LoadOptions(
+                intValue(values, "aliases", 10_000),
+                intValue(values, "chain-depth", 3),
+                Double.parseDouble(values.getOrDefault("hit-ratio", "0.8")),
+                intValue(values, "players", 100),
+                intValue(values, "threads", Math.max(1, Runtime.getRuntime().availableProcessors())),
+                intValue(values, "rate", 0),
+                intValue(values, "warmup", 3),
+                intValue(values, "duration", 10),
+                intValue(values, "mutations", 5),
+                path(values, "log"),
+                path(values, "alias-file"),
+                Long.parseLong(values.getOrDefault("max-p99-us", "0")),
+                path(values, "report"));
+        if (options.aliases < 1 || options.chainDepth < 1 || options.players < 1 || options.threads < 1 || options.seconds < 1
+                || options.hitRatio < 0 || options.hitRatio > 1 || options.rate < 0 || options.warmupSeconds < 0 || options.mutations < 0) {
+            throw new IllegalArgumentException("Out of range: " + options);
+        }
+        return options;
+    }
+
+    private static int intValue(Map<String, String> values, String key, int defaultValue) {
+        String value = values.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static Path path(Map<String, String> values, String key) {
+        String value = values.get(key);
+        return value == null || value.isBlank() ? null : Path.of(value);
+    }
+}
@@ -0,0 +1,256 @@
+package com.levyxx.minecraftalias.load;
+
+import com.levyxx.minecraftalias.AliasManager;
+import com.levyxx.minecraftalias.commands.AliasCommand;
+import com.levyxx.minecraftalias.fixtures.InMemoryStorage;
+import com.levyxx.minecraftalias.listeners.AliasListener;
+import com.levyxx.minecraftalias.metrics.LatencyHistogram;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Replays player commands through {@link AliasListener} on several threads against stub Bukkit objects,
+ * while an admin adds and removes aliases with {@code /alias}, and reports throughput, tail latency and
+ * allocation. Every command's outcome is checked against resolving it on its own before the replay.
+ * <p>
+ * Arguments are {@code key=value} pairs, see {@link LoadOptions}. Exits with status 1 when a check fails
+ * and 2 on bad arguments.
+ */
+public final class LoadReplay {
+    private static final String MUTATION_ROOT = "loadtmp";
+    private static final long SPIN_NANOS = 100_000L;
+
+    private final LoadOptions options;
+    private final Logger logger = Logger.getLogger("MinecraftAlias-Load");
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+    private LoadReplay(LoadOptions options) {
+        this.options = options;
+        logger.setLevel(Level.WARNING);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options;
+        try {
+            options = LoadOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        LoadReport report = new LoadReplay(options).run();
+        report.print(System.out);
+        if (options.report() != null) {
+            report.write(options.report());
+            System.out.println("Report written to " + options.report());
+        }
+        List<String> failures = report.failures();
+        failures.forEach(failure -> System.err.println("FAILED: " + failure));
+        System.exit(failures.isEmpty() ? 0 : 1);
+    }
+
+    private LoadReport run() throws Exception {
+        LoadFixtures fixtures = new LoadFixtures(options.players(), logger);
+        Map<String, String> aliases = options.aliasFile() == null ? LoadFixtures.aliases(options) : fixtures.readAliases(options.aliasFile());
+        AliasManager manager = new AliasManager(new InMemoryStorage(aliases), logger);
+        manager.reload();
+        AliasListener listener = new AliasListener(manager);
+        AliasCommand aliasCommand = new AliasCommand(fixtures.plugin(), manager);
+
+        List<LoadFixtures.LogEntry> log = options.log() == null ? fixtures.syntheticLog(options, manager) : fixtures.readLog(options.log());
+        boolean[] expected = new boolean[log.size()];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = dispatch(listener, log.get(i)).isCancelled();
+        }
+
+        long start = System.nanoTime() + 100_000_000L;
+        long measureFrom = start + options.warmupSeconds() * 1_000_000_000L;
+        long end = measureFrom + options.seconds() * 1_000_000_000L;
+
+        LatencyHistogram latency = new LatencyHistogram();
+        List<Worker> workers = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < options.threads(); i++) {
+            Worker worker = new Worker(listener, log, expected, i * (log.size() / options.threads()), start, measureFrom, end,
+                    latency);
+            workers.add(worker);
+            threads.add(new Thread(worker, "load-replay-" + i));
+        }
+        Admin admin = new Admin(aliasCommand, manager, fixtures.player("LoadAdmin"), start, end);
+        if (options.mutations() > 0) {
+            threads.add(new Thread(admin, "load-admin"));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long commands = 0;
+        long allocated = 0;
+        long resolved = 0;
+        long mismatches = 0;
+        for (Worker worker : workers) {
+            commands += worker.commands;
+            allocated += worker.allocatedBytes;
+            resolved += worker.resolved;
+            mismatches += worker.mismatches;
+        }
+        return new LoadReport(options, aliases.size(), commands, end - measureFrom, latency, allocated, resolved, mismatches,
+                admin.mutations, admin.failures, admin.latency, List.copyOf(errors));
+    }
+
+    private static PlayerCommandPreprocessEvent dispatch(AliasListener listener, LoadFixtures.LogEntry entry) {
+        PlayerCommandPreprocessEvent event = new PlayerCommandPreprocessEvent(entry.player(), entry.message());
+        listener.onPlayerCommand(event);
+        return event;
+    }
+
+    /**
+     * Waits until {@code deadline} and returns it, so a command that starts late counts the delay as latency
+     * instead of shifting the schedule. Parking oversleeps by tens of microseconds, so the last stretch is
+     * spun.
+     */
+    private static long pace(long deadline) {
+        for (long wait = deadline - System.nanoTime(); wait > 0; wait = deadline - System.nanoTime()) {
+            if (wait > SPIN_NANOS) {
+                LockSupport.parkNanos(wait - SPIN_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        return deadline;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Replays the log from its own offset at an equal share of the target rate.
+     */
+    private final class Worker implements Runnable {
+        private final AliasListener listener;
+        private final List<LoadFixtures.LogEntry> log;
+        private final boolean[] expected;
+        private final long start;
+        private final long measureFrom;
+        private final long end;
+        private final LatencyHistogram latency;
+        private int index;
+        private long commands;
+        private long resolved;
+        private long mismatches;
+        private long allocatedBytes;
+
+        Worker(AliasListener listener, List<LoadFixtures.LogEntry> log, boolean[] expected, int offset, long start, long measureFrom,
+               long end, LatencyHistogram latency) {
+            this.listener = listener;
+            this.log = log;
+            this.expected = expected;
+            this.index = offset;
+            this.start = start;
+            this.measureFrom = measureFrom;
+            this.end = end;
+            this.latency = latency;
+        }
+
+        @Override
+        public void run() {
+            long interval = options.rate() == 0 ? 0L : Math.max(1L, options.threads() * 1_000_000_000L / options.rate());
+            long next = pace(start);
+            long allocationMark = -1L;
+            try {
+                while (true) {
+                    long intended = interval == 0 ? System.nanoTime() : pace(next);
+                    next += interval;
+                    if (intended >= end) {
+                        break;
+                    }
+                    boolean measured = intended >= measureFrom;
+                    if (measured && allocationMark < 0) {
+                        allocationMark = allocatedBytes();
+                    }
+
+                    int current = index;
+                    index = current + 1 == log.size() ? 0 : current + 1;
+                    PlayerCommandPreprocessEvent event = dispatch(listener, log.get(current));
+                    long elapsed = System.nanoTime() - intended;
+                    if (!measured) {
+                        continue;
+                    }
+                    latency.record(elapsed);
+                    commands++;
+                    if (event.isCancelled()) {
+                        resolved++;
+                    }
+                    if (event.isCancelled() != expected[current]) {
+                        mismatches++;
+                    }
+                }
+            } catch (Throwable t) {
+                errors.add(Thread.currentThread().getName() + ": " + t);
+            }
+            if (allocationMark >= 0) {
+                allocatedBytes = allocatedBytes() - allocationMark;
+            }
+        }
+    }
+
+    /**
+     * Adds and then removes a throwaway alias through {@code /alias}, as an operator would while players
+     * are sending commands.
+     */
+    private final class Admin implements Runnable {
+        private final AliasCommand command;
+        private final AliasManager manager;
+        private final Player sender;
+        private final long start;
+        private final long end;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private long mutations;
+        private long failures;
+
+        Admin(AliasCommand command, AliasManager manager, Player sender, long start, long end) {
+            this.command = command;
+            this.manager = manager;
+            this.sender = sender;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public void run() {
+            long interval = 1_000_000_000L / options.mutations();
+            try {
+                for (long next = start; pace(next) < end; next += interval) {
+                    String alias = MUTATION_ROOT + " t" + (mutations / 2);
+                    boolean adding = mutations % 2 == 0;
+                    String[] args = adding
+                            ? new String[] {"add", "say", "load", String.valueOf(mutations), "by", MUTATION_ROOT, "t" + (mutations / 2)}
+                            : new String[] {"remove", MUTATION_ROOT, "t" + (mutations / 2)};
+                    long started = System.nanoTime();
+                    command.onCommand(sender, null, "alias", args);
+                    latency.record(System.nanoTime() - started);
+                    mutations++;
+                    if (manager.getAlias(alias).isPresent() != adding) {
+                        failures++;
+                    }
+                }
+            } catch (Throwable t) {
+                errors.add(Thread.currentThread().getName() + ": " + t);
+            }
+        }
+    }
+}
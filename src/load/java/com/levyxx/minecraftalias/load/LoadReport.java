@@ -0,0 +1,126 @@
+package com.levyxx.minecraftalias.load;
+
+import com.levyxx.minecraftalias.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Outcome of a replay's measured phase.
+ *
+ * @param commands         commands replayed
+ * @param nanos            length of the measured phase
+ * @param latency          time from a command's scheduled start to the listener returning, so a thread
+ *                         that falls behind the target rate shows up as latency
+ * @param allocatedBytes   bytes the replay threads allocated, including each command's event
+ * @param resolved         commands the listener resolved and cancelled
+ * @param mismatches       commands whose outcome differed from resolving the same command on its own
+ * @param mutations        admin commands run during warmup and measurement
+ * @param mutationFailures admin commands that did not change the table
+ * @param mutationLatency  time each admin command took
+ * @param errors           exceptions thrown by the listener or an admin command
+ */
+record LoadReport(LoadOptions options, int aliases, long commands, long nanos, LatencyHistogram latency, long allocatedBytes,
+                  long resolved, long mismatches, long mutations, long mutationFailures, LatencyHistogram mutationLatency,
+                  List<String> errors) {
+
+    double throughput() {
+        return nanos == 0 ? 0D : commands * 1e9 / nanos;
+    }
+
+    long bytesPerCommand() {
+        return commands == 0 ? 0L : allocatedBytes / commands;
+    }
+
+    /**
+     * Why the run failed its checks; empty when it passed.
+     */
+    List<String> failures() {
+        List<String> failures = new ArrayList<>();
+        if (!errors.isEmpty()) {
+            failures.add(errors.size() + " errors, first: " + errors.get(0));
+        }
+        if (mismatches > 0) {
+            failures.add(mismatches + " commands resolved differently than on their own");
+        }
+        if (mutationFailures > 0) {
+            failures.add(mutationFailures + " admin commands did not change the alias table");
+        }
+        long p99 = latency.percentile(0.99) / 1_000L;
+        if (options.maxP99Micros() > 0 && p99 > options.maxP99Micros()) {
+            failures.add("p99 latency " + p99 + " us exceeds " + options.maxP99Micros() + " us");
+        }
+        return failures;
+    }
+
+    void print(PrintStream out) {
+        out.printf(Locale.ROOT, "Replayed %d commands over %.1f s on %d threads (%d aliases, %s)%n", commands, nanos / 1e9,
+                options.threads(), aliases, options.rate() == 0 ? "unthrottled" : "target " + options.rate() + "/s");
+        out.printf(Locale.ROOT, "  throughput  %.0f commands/s%n", throughput());
+        out.printf(Locale.ROOT, "  latency     p50 %s  p90 %s  p99 %s  p99.9 %s  max %s%n", micros(latency.percentile(0.5)),
+                micros(latency.percentile(0.9)), micros(latency.percentile(0.99)), micros(latency.percentile(0.999)),
+                micros(latency.max()));
+        out.printf(Locale.ROOT, "  allocation  %d B/command%n", bytesPerCommand());
+        out.printf(Locale.ROOT, "  resolved    %d (%.1f%%), %d mismatches%n", resolved, commands == 0 ? 0D : resolved * 100D / commands,
+                mismatches);
+        out.printf(Locale.ROOT, "  mutations   %d, %d failed, p99 %s  max %s%n", mutations, mutationFailures,
+                micros(mutationLatency.percentile(0.99)), micros(mutationLatency.max()));
+        out.printf(Locale.ROOT, "  errors      %d%n", errors.size());
+    }
+
+    void write(Path file) throws IOException {
+        StringBuilder json = new StringBuilder("{\n");
+        field(json, "aliases", aliases);
+        field(json, "threads", options.threads());
+        field(json, "targetRate", options.rate());
+        field(json, "commands", commands);
+        field(json, "seconds", nanos / 1e9);
+        field(json, "throughput", throughput());
+        json.append("  \"latencyNanos\": ");
+        histogram(json, latency);
+        json.append(",\n");
+        field(json, "bytesPerCommand", bytesPerCommand());
+        field(json, "resolved", resolved);
+        field(json, "mismatches", mismatches);
+        field(json, "mutations", mutations);
+        field(json, "mutationFailures", mutationFailures);
+        json.append("  \"mutationLatencyNanos\": ");
+        histogram(json, mutationLatency);
+        json.append(",\n");
+        field(json, "errors", errors.size());
+        json.append("  \"passed\": ").append(failures().isEmpty()).append("\n}\n");
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(file, json, StandardCharsets.UTF_8);
+    }
+
+    private static void field(StringBuilder json, String name, long value) {
+        json.append("  \"").append(name).append("\": ").append(value).append(",\n");
+    }
+
+    private static void field(StringBuilder json, String name, double value) {
+        json.append("  \"").append(name).append("\": ").append(String.format(Locale.ROOT, "%.3f", value)).append(",\n");
+    }
+
+    private static void histogram(StringBuilder json, LatencyHistogram histogram) {
+        json.append("{\"p50\": ").append(histogram.percentile(0.5))
+                .append(", \"p90\": ").append(histogram.percentile(0.9))
+                .append(", \"p99\": ").append(histogram.percentile(0.99))
+                .append(", \"p999\": ").append(histogram.percentile(0.999))
+                .append(", \"max\": ").append(histogram.max())
+                .append(", \"mean\": ").append(histogram.mean()).append('}');
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.1fus", nanos / 1_000D);
+    }
+}
@@ -1,33 +1,88 @@
 package com.levyxx.minecraftalias;
 
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.plugin.java.JavaPlugin;
+import com.levyxx.minecraftalias.limits.AliasLimit;
+import com.levyxx.minecraftalias.macros.MacroScript;
+import com.levyxx.minecraftalias.metrics.AliasMetrics;
+import com.levyxx.minecraftalias.placeholders.Placeholder;
+import com.levyxx.minecraftalias.placeholders.PlaceholderRegistry;
+import com.levyxx.minecraftalias.storage.AliasStorage;
+import com.levyxx.minecraftalias.storage.ScopedAliasStorage;
+import com.levyxx.minecraftalias.storage.StoredAliases;
+import org.bukkit.command.CommandSender;
 
+import java.io.IOException;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.RandomAccess;
 import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 /**
  * Persists, validates, and resolves command aliases.
+ * <p>
+ * The alias table is published as an immutable {@link AliasTable} snapshot. Readers never lock; writers
+ * serialize on {@code writeLock} and swap in a new snapshot. Group and player aliases live in separate
+ * layers ({@link ScopeLayers}) that are published the same way and laid over the global table per player
+ * by {@link AliasViews}.
  */
 public final class AliasManager {
-    private static final Pattern ALIAS_PART_PATTERN = Pattern.compile("^[a-z0-9_\\-:.]{1,32}$", Pattern.CASE_INSENSITIVE);
+    private static final int MAX_COMPLETIONS = 100;
+    private static final int PARALLEL_VALIDATION_THRESHOLD = 4096;
+    /**
+     * Reloads changing more aliases than this (or an eighth of the table, if larger) rebuild the table in
+     * one pass instead of patching it alias by alias.
+     */
+    private static final int INCREMENTAL_RELOAD_LIMIT = 64;
+    private static final int MAX_ALIAS_PART_LENGTH = 32;
+    /**
+     * Characters allowed in alias tokens by ASCII code: letters, digits, {@code _ - : .}.
+     */
+    private static final boolean[] ALIAS_PART_CHARS = charTable("abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789_-:.");
 
-    private final JavaPlugin plugin;
-    private final Map<String, AliasRecord> aliases = new LinkedHashMap<>();
+    private final AliasStorage storage;
+    private final ScopedAliasStorage scopeStorage;
+    private final Logger logger;
+    private final Object writeLock = new Object();
+    private final PlaceholderRegistry placeholders = PlaceholderRegistry.defaults();
+    private final TokenDictionary dictionary = new TokenDictionary();
+    private volatile AliasTable table = AliasTable.empty(placeholders);
+    private volatile ScopeLayers scopes = ScopeLayers.EMPTY;
+    private final AliasMetrics metrics = new AliasMetrics();
+    private volatile TraceSampling traceSampling;
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
 
-    public AliasManager(JavaPlugin plugin) {
-        this.plugin = plugin;
+    private final AliasViews views;
+
+    /**
+     * Manager with global aliases only; group and player aliases are kept in memory but not persisted.
+     */
+    public AliasManager(AliasStorage storage, Logger logger) {
+        this(storage, null, logger);
+    }
+
+    public AliasManager(AliasStorage storage, ScopedAliasStorage scopeStorage, Logger logger) {
+        this.storage = storage;
+        this.scopeStorage = scopeStorage;
+        this.logger = logger;
+        this.views = new AliasViews();
     }
 
     public boolean isValidAlias(String alias) {
@@ -35,143 +90,768 @@ public final class AliasManager {
         return validateAliasTokens(tokens);
     }
 
-    public synchronized boolean addAlias(String alias, String targetCommand) {
+    /**
+     * Adds a global alias unless it is invalid, already registered, or would let alias resolution loop.
+     */
+    public AddResult addAlias(String alias, String targetCommand) {
+        return addAlias(AliasScope.GLOBAL, alias, targetCommand);
+    }
+
+    /**
+     * Adds an alias to {@code scope}. A group or player alias may override an alias of a lower layer;
+     * it is checked for cycles against the global aliases and its own layer. Cycles that only arise from
+     * a player's particular combination of groups are left out when that player's view is composed.
+     */
+    public AddResult addAlias(AliasScope scope, String alias, String targetCommand) {
         List<String> aliasTokens = tokenizeAlias(alias);
         if (!validateAliasTokens(aliasTokens)) {
-            return false;
+            return AddResult.INVALID;
         }
 
-        String normalizedAlias = normalizeTokens(aliasTokens);
-        if (aliases.containsKey(normalizedAlias)) {
-            return false;
+        String sanitizedTargetCommand = sanitizeCommand(targetCommand);
+        if (sanitizedTargetCommand.isEmpty()) {
+            return AddResult.INVALID;
+        }
+
+        synchronized (writeLock) {
+            if (scope.kind() != AliasScope.Kind.GLOBAL) {
+                return addScopedAlias(scope, aliasTokens, sanitizedTargetCommand);
+            }
+            if (table.get(aliasTokens) != null) {
+                return AddResult.DUPLICATE;
+            }
+            AliasRecord record = newRecord(aliasTokens, sanitizedTargetCommand);
+            AliasTable updated = table.with(record);
+            if (!updated.findCycle(record).isEmpty()) {
+                return AddResult.CYCLE;
+            }
+            table = updated;
+            storage.aliasAdded(record, table.records());
+        }
+        views.clear();
+        fireChanged();
+        return AddResult.ADDED;
+    }
+
+    private AddResult addScopedAlias(AliasScope scope, List<String> aliasTokens, String command) {
+        AliasTable layer = layerOf(scope);
+        if (layer.get(aliasTokens) != null) {
+            return AddResult.DUPLICATE;
+        }
+        AliasRecord record = newRecord(aliasTokens, command);
+        if (!scopeBase(scope, layer).findCycleIfAdded(record).isEmpty()) {
+            return AddResult.CYCLE;
+        }
+        publishLayer(scope, layer.with(record));
+        return AddResult.ADDED;
+    }
+
+    private AliasTable layerOf(AliasScope scope) {
+        AliasTable layer = scopes.layer(scope);
+        return layer == null ? AliasTable.empty(placeholders) : layer;
+    }
+
+    /**
+     * The global table with {@code layer} laid over it, which aliases added to {@code scope} are checked
+     * against.
+     */
+    private AliasTable scopeBase(AliasScope scope, AliasTable layer) {
+        return scope.kind() == AliasScope.Kind.GLOBAL ? table : table.overlay(layer.records(), record -> { });
+    }
+
+    private void publishLayer(AliasScope scope, AliasTable layer) {
+        scopes = scopes.with(scope, layer);
+        if (scope.kind() == AliasScope.Kind.GROUP) {
+            views.clear();
+        } else {
+            views.evict(scope.playerId());
+        }
+        if (scopeStorage != null) {
+            scopeStorage.save(scope, layer.records());
+        }
+    }
+
+    /**
+     * Adds {@code entries} (alias, command) as one batch: the table is swapped once and persisted with a
+     * single full write. Entries are validated before the write lock is taken, in parallel for large
+     * batches, so this is meant to be called off the server thread. Invalid entries, aliases that are
+     * already registered or repeated in the batch (the first occurrence wins), and aliases that would
+     * close a resolution cycle are skipped and reported.
+     */
+    public ImportResult importAliases(List<Map.Entry<String, String>> entries) {
+        List<Optional<AliasRecord>> validated = validationStream(entries)
+                .map(entry -> parseEntry(entry.getKey(), entry.getValue()))
+                .toList();
+
+        List<String> invalid = new ArrayList<>();
+        List<String> conflicts = new ArrayList<>();
+        List<String> cyclic = new ArrayList<>();
+        List<AliasRecord> fresh = new ArrayList<>(entries.size());
+        BitSet seen = new BitSet();
+        for (int i = 0; i < entries.size(); i++) {
+            Optional<AliasRecord> record = validated.get(i);
+            if (record.isEmpty()) {
+                invalid.add(entries.get(i).getKey());
+            } else if (seen.get(record.get().key())) {
+                conflicts.add(record.get().alias());
+            } else {
+                seen.set(record.get().key());
+                fresh.add(record.get());
+            }
+        }
+
+        List<AliasRecord> added = new ArrayList<>(fresh.size());
+        synchronized (writeLock) {
+            List<AliasRecord> combined = new ArrayList<>(table.records());
+            for (AliasRecord record : fresh) {
+                if (table.get(record.aliasTokens()) != null) {
+                    conflicts.add(record.alias());
+                } else {
+                    combined.add(record);
+                    added.add(record);
+                }
+            }
+            if (added.isEmpty()) {
+                return new ImportResult(0, invalid, conflicts, cyclic);
+            }
+
+            Set<AliasRecord> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+            candidates.addAll(added);
+            table = withoutCycles(combined, candidates::contains, (record, cycle) -> cyclic.add(describeCycle(record, cycle)));
+            storage.save(table.records());
+        }
+        views.clear();
+        fireChanged();
+        return new ImportResult(added.size() - cyclic.size(), invalid, conflicts, cyclic);
+    }
+
+    private Optional<AliasRecord> parseEntry(String alias, String command) {
+        List<String> aliasTokens = tokenizeAlias(alias);
+        if (!validateAliasTokens(aliasTokens)) {
+            return Optional.empty();
+        }
+        String sanitized = sanitizeCommand(command);
+        if (sanitized.isEmpty()) {
+            return Optional.empty();
         }
+        return Optional.of(newRecord(aliasTokens, sanitized));
+    }
 
+    /**
+     * Stream over {@code items} that runs on the common fork-join pool for large batches.
+     */
+    private static <T> Stream<T> validationStream(List<T> items) {
+        return items.size() >= PARALLEL_VALIDATION_THRESHOLD ? items.parallelStream() : items.stream();
+    }
+
+    /**
+     * Returns the aliases, starting with {@code alias}, that would form a resolution cycle if {@code alias}
+     * were added with {@code targetCommand}; empty when it would not.
+     */
+    public List<String> findCycle(String alias, String targetCommand) {
+        return findCycle(AliasScope.GLOBAL, alias, targetCommand);
+    }
+
+    /**
+     * Like {@link #findCycle(String, String)} for an alias added to {@code scope}.
+     */
+    public List<String> findCycle(AliasScope scope, String alias, String targetCommand) {
+        List<String> aliasTokens = tokenizeAlias(alias);
         String sanitizedTargetCommand = sanitizeCommand(targetCommand);
-        if (sanitizedTargetCommand.isEmpty()) {
-            return false;
+        AliasTable layer = scope.kind() == AliasScope.Kind.GLOBAL ? table : layerOf(scope);
+        if (!validateAliasTokens(aliasTokens) || sanitizedTargetCommand.isEmpty() || layer.get(aliasTokens) != null) {
+            return List.of();
         }
 
-        AliasRecord record = new AliasRecord(joinTokens(aliasTokens), aliasTokens, sanitizedTargetCommand);
-        aliases.put(normalizedAlias, record);
-        save();
-        return true;
+        AliasRecord record = newRecord(aliasTokens, sanitizedTargetCommand);
+        List<String> cycle = new ArrayList<>();
+        for (AliasRecord step : scopeBase(scope, layer).findCycleIfAdded(record)) {
+            cycle.add(step.alias());
+        }
+        return cycle;
+    }
+
+    public Optional<AliasRecord> removeAlias(String alias) {
+        return removeAlias(AliasScope.GLOBAL, alias);
     }
 
-    public synchronized Optional<AliasRecord> removeAlias(String alias) {
+    public Optional<AliasRecord> removeAlias(AliasScope scope, String alias) {
         List<String> aliasTokens = tokenizeAlias(alias);
         if (aliasTokens.isEmpty()) {
             return Optional.empty();
         }
 
-        AliasRecord removed = aliases.remove(normalizeTokens(aliasTokens));
-        if (removed != null) {
-            save();
+        AliasRecord removed;
+        synchronized (writeLock) {
+            if (scope.kind() != AliasScope.Kind.GLOBAL) {
+                AliasTable layer = layerOf(scope);
+                removed = layer.get(aliasTokens);
+                if (removed != null) {
+                    publishLayer(scope, layer.without(removed));
+                    forgetUnlessDefined(removed);
+                }
+                return Optional.ofNullable(removed);
+            }
+
+            removed = table.get(aliasTokens);
+            if (removed == null) {
+                return Optional.empty();
+            }
+            table = table.without(removed);
+            storage.aliasRemoved(removed, table.records());
+            forgetUnlessDefined(removed);
         }
-        return Optional.ofNullable(removed);
+        views.clear();
+        fireChanged();
+        return Optional.of(removed);
     }
 
-    public synchronized Optional<AliasRecord> getAlias(String alias) {
+    /**
+     * Drops the usage counters of {@code removed} unless the global table or a layer still defines the
+     * same alias: counters are kept per alias key, which same-named aliases of every scope share.
+     */
+    private void forgetUnlessDefined(AliasRecord removed) {
+        List<String> aliasTokens = removed.aliasTokens();
+        if (table.get(aliasTokens) != null) {
+            return;
+        }
+        for (AliasScope scope : scopes.scopes()) {
+            if (scopes.layer(scope).get(aliasTokens) != null) {
+                return;
+            }
+        }
+        metrics.forget(removed);
+    }
+
+    /**
+     * The records of the global table and of every layer.
+     */
+    private List<AliasRecord> allRecords() {
+        if (scopes.isEmpty()) {
+            return table.records();
+        }
+        List<AliasRecord> records = new ArrayList<>(table.records());
+        for (AliasScope scope : scopes.scopes()) {
+            records.addAll(scopes.layer(scope).records());
+        }
+        return records;
+    }
+
+    public Optional<AliasRecord> getAlias(String alias) {
         List<String> aliasTokens = tokenizeAlias(alias);
         if (aliasTokens.isEmpty()) {
             return Optional.empty();
         }
-        return Optional.ofNullable(aliases.get(normalizeTokens(aliasTokens)));
+        return Optional.ofNullable(table.get(aliasTokens));
     }
 
-    public synchronized Collection<AliasRecord> listAliases() {
-        List<AliasRecord> records = new ArrayList<>(aliases.values());
-        records.sort(Comparator.comparing(AliasRecord::alias, String.CASE_INSENSITIVE_ORDER));
-        return Collections.unmodifiableList(records);
+    /**
+     * All aliases ordered by normalized alias. The list is a read-only view of the current snapshot.
+     */
+    public List<AliasRecord> listAliases() {
+        return table.records();
     }
 
-    public synchronized Optional<String> resolveCommand(List<String> inputTokens) {
-        if (aliases.isEmpty() || inputTokens.isEmpty()) {
-            return Optional.empty();
+    /**
+     * Aliases defined in {@code scope} itself, without those inherited from lower layers.
+     */
+    public List<AliasRecord> listAliases(AliasScope scope) {
+        if (scope.kind() == AliasScope.Kind.GLOBAL) {
+            return table.records();
         }
+        AliasTable layer = scopes.layer(scope);
+        return layer == null ? List.of() : layer.records();
+    }
 
-        List<String> tokens = new ArrayList<>(inputTokens);
-        Set<String> visited = new HashSet<>();
-        boolean matchedAny = false;
+    /**
+     * Aliases starting with {@code prefix}, ignoring case, as a view in alias order.
+     */
+    public List<AliasRecord> listAliasesWithPrefix(String prefix) {
+        return table.withPrefix(CommandTokens.collapseWhitespace(stripLeadingSlash(prefix)).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Aliases whose command runs {@code command}, compared by the first word and ignoring case.
+     */
+    public List<AliasRecord> listAliasesTargeting(String command) {
+        CommandTokens tokens = CommandTokens.of(stripLeadingSlash(command));
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        return table.targeting(tokens.token(0).toLowerCase(Locale.ROOT));
+    }
 
-        while (true) {
-            Match match = findLongestMatch(tokens);
-            if (match == null) {
-                return matchedAny ? Optional.of(joinTokens(tokens)) : Optional.empty();
+    /**
+     * Aliases whose name or command contains {@code text}, ignoring case. Matches against the records'
+     * dictionary tokens, so no alias or command string is built except for the few records that store
+     * their command verbatim or carry limit directives.
+     */
+    public List<AliasRecord> searchAliases(String text) {
+        TokenSearch search = new TokenSearch(CommandTokens.collapseWhitespace(text));
+        List<AliasRecord> matches = new ArrayList<>();
+        for (AliasRecord record : table.records()) {
+            if (search.matches(record)) {
+                matches.add(record);
             }
+        }
+        return matches;
+    }
 
-            matchedAny = true;
-            AliasRecord record = match.record();
-            if (!visited.add(record.normalizedAlias())) {
-                return Optional.empty();
+    /**
+     * Completions for the last of {@code typedTokens}, which may be partial or empty: the distinct next
+     * tokens of the aliases that start with the typed ones, in alias order.
+     */
+    public List<String> completeAlias(List<String> typedTokens) {
+        return completeAlias(typedTokens, null);
+    }
+
+    /**
+     * Like {@link #completeAlias(List)}, over the aliases available to {@code sender}.
+     */
+    public List<String> completeAlias(List<String> typedTokens, CommandSender sender) {
+        StringBuilder prefix = new StringBuilder();
+        for (int i = 0; i < typedTokens.size(); i++) {
+            String token = typedTokens.get(i);
+            if (token.isEmpty() && i < typedTokens.size() - 1) {
+                continue;
             }
+            if (i > 0 && prefix.length() > 0) {
+                prefix.append(' ');
+            }
+            prefix.append(token.toLowerCase(Locale.ROOT));
+        }
+        return views.viewFor(sender, table, scopes).completeToken(prefix.toString(), MAX_COMPLETIONS);
+    }
 
-            List<String> commandTokens = tokenizeCommand(record.command());
-            commandTokens.addAll(match.remainingTokens());
-            tokens = commandTokens;
+    /**
+     * Cheap pre-check for the command listeners: returns false when the first word of
+     * {@code command[from..]} cannot start any alias, so the command needs no tokenizing or resolution.
+     */
+    public boolean isAliasRoot(CharSequence command, int from) {
+        return isAliasRoot(command, from, null);
+    }
+
+    /**
+     * Like {@link #isAliasRoot(CharSequence, int)}, over the aliases available to {@code sender}.
+     */
+    public boolean isAliasRoot(CharSequence command, int from, CommandSender sender) {
+        return aliasesFor(sender).isAliasRoot(command, from);
+    }
+
+    /**
+     * The aliases available to {@code sender}. A caller that checks a command's root and then resolves it
+     * should do both through this, so the sender's groups are looked up at most once and both steps see
+     * the same aliases. The view is composed on first use, and not at all for a command whose root no
+     * alias in any scope starts with.
+     */
+    public SenderAliases aliasesFor(CommandSender sender) {
+        return new SenderAliases(table, scopes, sender);
+    }
+
+    /**
+     * The alias {@code inputTokens} would invoke for {@code sender}, without following its chain.
+     */
+    public Optional<AliasRecord> findAlias(CommandTokens inputTokens, CommandSender sender) {
+        return Optional.ofNullable(views.viewFor(sender, table, scopes).match(inputTokens, sender));
+    }
+
+    public Optional<String> resolveCommand(CommandTokens inputTokens) {
+        return resolveCommand(inputTokens, null);
+    }
+
+    /**
+     * Resolves {@code inputTokens} and renders the placeholders of the resulting command for {@code sender}.
+     */
+    public Optional<String> resolveCommand(CommandTokens inputTokens, CommandSender sender) {
+        return aliasesFor(sender).resolveCommand(inputTokens);
+    }
+
+    /**
+     * Resolves {@code inputTokens} for {@code sender} like {@link #resolveCommand(CommandTokens, CommandSender)},
+     * recording every stage with its time. The resolution is not counted in the metrics.
+     */
+    public ResolutionTrace explain(CommandTokens inputTokens, CommandSender sender) {
+        ResolutionTrace trace = new ResolutionTrace(inputTokens.join(0, inputTokens.size()));
+        AliasTable view = views.viewFor(sender, table, scopes);
+        trace.step(ResolutionTrace.Stage.VIEW, view.size() + " aliases");
+        try {
+            view.resolve(inputTokens, sender, null, trace);
+        } catch (IllegalStateException e) {
+            trace.step(ResolutionTrace.Stage.FAILED, e.getMessage());
         }
+        return trace;
     }
 
-    public synchronized int size() {
-        return aliases.size();
+    /**
+     * Traces about one in {@code sampleRate} resolutions and logs the traces of those that took at least
+     * {@code slowNanos}. A rate of 0 turns sampling off.
+     */
+    public void setTraceSampling(int sampleRate, long slowNanos) {
+        traceSampling = sampleRate > 0 ? new TraceSampling(sampleRate, slowNanos) : null;
     }
 
-    public synchronized void reload() {
-        aliases.clear();
-        if (!plugin.getConfig().isConfigurationSection("aliases")) {
-            return;
+    /**
+     * Distinct first tokens of all aliases, lower-cased and in alias order.
+     */
+    public Set<String> rootTokens() {
+        return table.roots();
+    }
+
+    /**
+     * Runs {@code listener} after every change to the alias table, on the thread that made the change
+     * (which is not necessarily the server thread) and outside the write lock.
+     */
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    private void fireChanged() {
+        for (Runnable listener : changeListeners) {
+            listener.run();
         }
+    }
 
-        ConfigurationSection section = plugin.getConfig().getConfigurationSection("aliases");
-        if (section == null) {
-            return;
+    /**
+     * Forgets the composed view of a player who left.
+     */
+    public void evict(UUID playerId) {
+        views.evict(playerId);
+    }
+
+    public AliasMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Registers a {@code %name%} placeholder. Tables are rebuilt so that no command template compiled
+     * before the placeholder existed stays in use.
+     */
+    public void registerPlaceholder(String name, Placeholder placeholder) {
+        synchronized (writeLock) {
+            placeholders.register(name, placeholder);
+            table = AliasTable.of(table.records(), placeholders);
+            scopes = scopes.mapLayers(layer -> AliasTable.of(layer.records(), placeholders));
+            views.clear();
+        }
+    }
+
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * Reloads global, group and player aliases from storage and applies only what changed. Files are
+     * read and parsed, in parallel for large files, and the new global table is built before the write
+     * lock is taken, so commands keep resolving against the current table meanwhile and this may be
+     * called off the server thread. Returns empty when the global
+     * aliases could not be read, in which case they are left as they are.
+     */
+    public Optional<ReloadResult> reload() {
+        Optional<ReloadResult> global = reloadGlobal();
+        if (scopeStorage == null) {
+            return global;
         }
 
-        Set<String> keys = section.getKeys(false);
-        List<String> ordered = new ArrayList<>(keys);
-        ordered.sort(String.CASE_INSENSITIVE_ORDER);
+        Map<AliasScope, List<AliasRecord>> stored;
+        try {
+            stored = new HashMap<>();
+            scopeStorage.load().forEach((scope, entries) -> stored.put(scope, toRecords(entries)));
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to load group and player aliases; keeping the current ones.", e);
+            return global;
+        }
 
-        for (String key : ordered) {
-            String value = section.getString(key);
-            if (value == null || value.isBlank()) {
-                continue;
+        ReloadResult layers = ReloadResult.NONE;
+        synchronized (writeLock) {
+            ScopeLayers current = scopes;
+            List<AliasScope> present = new ArrayList<>(current.scopes());
+            present.addAll(stored.keySet());
+            for (AliasScope scope : new HashSet<>(present)) {
+                layers = layers.plus(applyLayer(scope, stored.getOrDefault(scope, List.of())));
             }
+            if (scopes.groupCount() > ScopeLayers.MAX_GROUPS) {
+                logger.warning(() -> "Only the first " + ScopeLayers.MAX_GROUPS + " alias groups by name are used.");
+            }
+        }
+        if (!layers.isEmpty()) {
+            fireChanged();
+        }
+        ReloadResult scoped = layers;
+        return global.map(result -> result.plus(scoped));
+    }
 
-            List<String> aliasTokens = tokenizeAlias(key);
-            if (!validateAliasTokens(aliasTokens)) {
-                continue;
+    /**
+     * Reloads the global aliases only; see {@link #reload()}.
+     */
+    public Optional<ReloadResult> reloadGlobal() {
+        StoredAliases stored;
+        try {
+            stored = storage.load();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to load aliases; keeping the current table.", e);
+            return Optional.empty();
+        }
+        List<AliasRecord> records = stored.validated() ? toTrustedRecords(stored.entries()) : toRecords(stored.entries());
+
+        AliasTable base = table;
+        Rebuild rebuild = rebuild(base, records);
+        ReloadResult result;
+        synchronized (writeLock) {
+            if (table != base) {
+                // An alias was added or removed while the table was rebuilt; rebuild against the new one.
+                rebuild = rebuild(table, records);
+            }
+            if (rebuild.diff().isEmpty()) {
+                return Optional.of(ReloadResult.NONE);
+            }
+            AliasTable previous = table;
+            table = rebuild.table();
+            storage.loaded(table.records());
+            if (rebuild.diff().removed() > 0 || !rebuild.skipped().isEmpty()) {
+                metrics.retain(allRecords());
             }
+            views.clear();
+            result = rebuild.diff().result(previous, rebuild.skipped());
+        }
+        for (int i = 0; i < rebuild.skipped().size(); i++) {
+            AliasRecord record = rebuild.skipped().get(i);
+            String cycle = rebuild.cycles().get(i);
+            logger.warning(() -> "Skipping alias '/" + record.alias() + "' because it would loop: " + cycle);
+        }
+        fireChanged();
+        return Optional.of(result);
+    }
 
-            String normalized = normalizeTokens(aliasTokens);
-            if (aliases.containsKey(normalized)) {
-                continue;
+    /**
+     * Applies {@code records} to {@code base}, patching it alias by alias for small changes and building
+     * a fresh table otherwise. Does not publish anything, so it can run without the write lock.
+     */
+    private Rebuild rebuild(AliasTable base, List<AliasRecord> records) {
+        Diff diff = Diff.of(base, records);
+        List<AliasRecord> skipped = new ArrayList<>();
+        List<String> cycles = new ArrayList<>();
+        BiConsumer<AliasRecord, List<AliasRecord>> skip = (record, cycle) -> {
+            skipped.add(record);
+            cycles.add(describeCycle(record, cycle));
+        };
+        AliasTable rebuilt;
+        if (diff.isEmpty()) {
+            rebuilt = base;
+        } else if (diff.size() > Math.max(INCREMENTAL_RELOAD_LIMIT, base.size() / 8)) {
+            rebuilt = withoutCycles(diff.records(), record -> true, skip);
+        } else {
+            rebuilt = patch(base, diff, skip);
+        }
+        return new Rebuild(diff, rebuilt, skipped, cycles);
+    }
+
+    /**
+     * Reloads the layer of one group or player; see {@link #reload()}. Returns empty when it could not be
+     * read, in which case it is left as it is.
+     */
+    public Optional<ReloadResult> reloadScope(AliasScope scope) {
+        if (scopeStorage == null || scope.kind() == AliasScope.Kind.GLOBAL) {
+            return Optional.empty();
+        }
+        List<AliasRecord> records;
+        try {
+            records = toRecords(scopeStorage.load(scope));
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to load the " + scope.kind().name().toLowerCase(Locale.ROOT) + " aliases of '"
+                    + scope.name() + "'; keeping the current ones.", e);
+            return Optional.empty();
+        }
+
+        ReloadResult result;
+        synchronized (writeLock) {
+            result = applyLayer(scope, records);
+        }
+        if (!result.isEmpty()) {
+            fireChanged();
+        }
+        return Optional.of(result);
+    }
+
+    /**
+     * Applies {@code diff} to {@code base} record by record. Removals cannot create cycles and the base
+     * is acyclic, so any new cycle runs through an added record and is caught when that record is added.
+     */
+    private static AliasTable patch(AliasTable base, Diff diff, BiConsumer<AliasRecord, List<AliasRecord>> skipped) {
+        AliasTable patched = base;
+        for (AliasRecord record : diff.stale()) {
+            patched = patched.without(record);
+        }
+        for (AliasRecord record : diff.fresh()) {
+            AliasTable candidate = patched.with(record);
+            List<AliasRecord> cycle = candidate.findCycle(record);
+            if (cycle.isEmpty()) {
+                patched = candidate;
+            } else {
+                skipped.accept(record, cycle);
             }
+        }
+        return patched;
+    }
 
-            String sanitizedCommand = sanitizeCommand(value);
-            if (sanitizedCommand.isEmpty()) {
-                continue;
+    /**
+     * Replaces the layer of {@code scope} with {@code records} unless they are what it already holds.
+     * Caller holds the write lock.
+     */
+    private ReloadResult applyLayer(AliasScope scope, List<AliasRecord> records) {
+        AliasTable current = layerOf(scope);
+        Diff diff = Diff.of(current, records);
+        if (diff.isEmpty()) {
+            return ReloadResult.NONE;
+        }
+        AliasTable layer = AliasTable.of(diff.records(), placeholders);
+        table.overlay(layer.records(), record -> logger.warning(() -> "Alias '/" + record.alias() + "' of the "
+                + scope.kind().name().toLowerCase(Locale.ROOT) + " '" + scope.name()
+                + "' is left out because it would loop with the global aliases."));
+        scopes = scopes.with(scope, layer);
+        if (scope.kind() == AliasScope.Kind.GROUP) {
+            views.clear();
+        } else {
+            views.evict(scope.playerId());
+        }
+        scopeStorage.loaded(scope, layer.records());
+        return diff.result(current, List.of());
+    }
+
+    /**
+     * Schedules a full write of the current table. Returns immediately; the storage backend decides when
+     * the write happens.
+     */
+    public void save() {
+        storage.save(table.records());
+    }
+
+    /**
+     * Blocks until every scheduled save has reached the disk.
+     */
+    public void flush() {
+        storage.flush();
+        if (scopeStorage != null) {
+            scopeStorage.flush();
+        }
+    }
+
+    public void close() {
+        storage.close();
+        if (scopeStorage != null) {
+            scopeStorage.close();
+        }
+    }
+
+    /**
+     * Builds records from entries a storage backend validated when it wrote them, skipping sorting,
+     * duplicate checks and pattern validation.
+     */
+    private List<AliasRecord> toTrustedRecords(Map<String, String> stored) {
+        return validationStream(new ArrayList<>(stored.entrySet()))
+                .map(entry -> newRecord(Arrays.asList(entry.getKey().split(" ")), entry.getValue()))
+                .toList();
+    }
+
+    /**
+     * Validates stored entries and builds their records, in parallel for large maps. Aliases that are
+     * equal ignoring case are resolved afterwards in case-insensitive key order, so the first one wins
+     * as it would sequentially; keys that only differ in case keep the order of {@code stored}.
+     */
+    private List<AliasRecord> toRecords(Map<String, String> stored) {
+        String[] ordered = stored.keySet().toArray(new String[0]);
+        Arrays.parallelSort(ordered, String.CASE_INSENSITIVE_ORDER);
+        List<Optional<AliasRecord>> parsed = validationStream(Arrays.asList(ordered))
+                .map(key -> parseEntry(key, stored.get(key)))
+                .toList();
+
+        List<AliasRecord> records = new ArrayList<>(parsed.size());
+        BitSet seen = new BitSet();
+        for (Optional<AliasRecord> record : parsed) {
+            if (record.isPresent() && !seen.get(record.get().key())) {
+                seen.set(record.get().key());
+                records.add(record.get());
             }
+        }
+        return records;
+    }
+
+    /**
+     * Builds a table from {@code records} without resolution cycles. Only records accepted by
+     * {@code removable} are dropped, so those must be part of every cycle. Going through the cyclic ones
+     * in order, each is added back unless it would close a cycle, so the first alias of a cycle wins;
+     * the others are passed to {@code skipped} together with the cycle they would close.
+     */
+    private AliasTable withoutCycles(List<AliasRecord> records, Predicate<AliasRecord> removable,
+                                     BiConsumer<AliasRecord, List<AliasRecord>> skipped) {
+        AliasTable loaded = AliasTable.of(records, placeholders);
+        Set<AliasRecord> cyclic = loaded.cyclicRecords();
+        cyclic.removeIf(removable.negate());
+        if (cyclic.isEmpty()) {
+            return loaded;
+        }
 
-            AliasRecord record = new AliasRecord(joinTokens(aliasTokens), aliasTokens, sanitizedCommand);
-            aliases.put(normalized, record);
+        List<AliasRecord> acyclic = new ArrayList<>(records.size() - cyclic.size());
+        for (AliasRecord record : records) {
+            if (!cyclic.contains(record)) {
+                acyclic.add(record);
+            }
         }
+
+        AliasTable result = AliasTable.of(acyclic, placeholders);
+        for (AliasRecord record : records) {
+            if (!cyclic.contains(record)) {
+                continue;
+            }
+            AliasTable updated = result.with(record);
+            List<AliasRecord> cycle = updated.findCycle(record);
+            if (cycle.isEmpty()) {
+                result = updated;
+            } else {
+                skipped.accept(record, cycle);
+            }
+        }
+        return result;
     }
 
-    public synchronized void save() {
-        plugin.getConfig().set("aliases", null);
-        for (AliasRecord record : aliases.values()) {
-            plugin.getConfig().set("aliases." + record.alias(), record.command());
+    private static String describeCycle(AliasRecord record, List<AliasRecord> cycle) {
+        StringBuilder builder = new StringBuilder();
+        for (AliasRecord step : cycle) {
+            builder.append('/').append(step.alias()).append(" -> ");
         }
-        plugin.saveConfig();
+        return builder.append('/').append(record.alias()).toString();
     }
 
+    private AliasRecord newRecord(List<String> aliasTokens, String command) {
+        AliasLimit.Split split = AliasLimit.split(command).orElseGet(() -> new AliasLimit.Split(AliasLimit.NONE, command));
+        return new AliasRecord(dictionary, aliasTokens, command, split);
+    }
+
+    /**
+     * Alias tokens are literal, except that tokens after the first may be parameter slots with distinct
+     * names, of which only the last may be a rest slot.
+     */
     private boolean validateAliasTokens(List<String> tokens) {
         if (tokens.isEmpty()) {
             return false;
         }
 
+        Set<String> names = null;
         for (int i = 0; i < tokens.size(); i++) {
             String token = tokens.get(i);
-            if (!ALIAS_PART_PATTERN.matcher(token).matches()) {
+            ParameterType slot = i == 0 ? null : ParameterType.of(token);
+            if (slot != null) {
+                if (token.length() > MAX_ALIAS_PART_LENGTH || (slot == ParameterType.REST && i < tokens.size() - 1)) {
+                    return false;
+                }
+                if (names == null) {
+                    names = new HashSet<>();
+                }
+                if (!names.add(ParameterType.nameOf(token))) {
+                    return false;
+                }
+                continue;
+            }
+            if (!isAliasPart(token)) {
                 return false;
             }
             if (i == 0 && "alias".equalsIgnoreCase(token)) {
@@ -181,35 +861,26 @@ public final class AliasManager {
         return true;
     }
 
-    private Match findLongestMatch(List<String> tokens) {
-        AliasRecord bestRecord = null;
-        int bestLength = 0;
-
-        outer:
-        for (AliasRecord record : aliases.values()) {
-            List<String> aliasTokens = record.aliasTokens();
-            if (aliasTokens.size() > tokens.size()) {
-                continue;
-            }
-
-            for (int i = 0; i < aliasTokens.size(); i++) {
-                if (!aliasTokens.get(i).equalsIgnoreCase(tokens.get(i))) {
-                    continue outer;
-                }
-            }
-
-            if (aliasTokens.size() > bestLength) {
-                bestRecord = record;
-                bestLength = aliasTokens.size();
+    private static boolean isAliasPart(String token) {
+        int length = token.length();
+        if (length == 0 || length > MAX_ALIAS_PART_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            if (c >= ALIAS_PART_CHARS.length || !ALIAS_PART_CHARS[c]) {
+                return false;
             }
         }
+        return true;
+    }
 
-        if (bestRecord == null) {
-            return null;
+    private static boolean[] charTable(String chars) {
+        boolean[] table = new boolean[128];
+        for (int i = 0; i < chars.length(); i++) {
+            table[chars.charAt(i)] = true;
         }
-
-        List<String> remaining = new ArrayList<>(tokens.subList(bestLength, tokens.size()));
-        return new Match(bestRecord, remaining);
+        return table;
     }
 
     private List<String> tokenizeAlias(String alias) {
@@ -222,41 +893,36 @@ public final class AliasManager {
             return Collections.emptyList();
         }
 
-        String normalizedSpacing = collapseWhitespace(prepared);
-        if (normalizedSpacing.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        String[] parts = normalizedSpacing.split(" ");
-        return new ArrayList<>(Arrays.asList(parts));
-    }
-
-    private List<String> tokenizeCommand(String command) {
-        if (command == null || command.isBlank()) {
-            return new ArrayList<>();
-        }
-        String normalizedSpacing = collapseWhitespace(command);
-        return new ArrayList<>(Arrays.asList(normalizedSpacing.split(" ")));
+        return CommandTokens.of(prepared).toList();
     }
 
+    /**
+     * Returns the command without its leading slash, with single spaces and limit directives in canonical
+     * form, or an empty string when it is empty, a malformed macro or has malformed limit directives.
+     */
     private String sanitizeCommand(String command) {
         String withoutSlash = stripLeadingSlash(command);
         if (withoutSlash.isEmpty()) {
             return "";
         }
-        return collapseWhitespace(withoutSlash);
-    }
-
-    private static String joinTokens(List<String> tokens) {
-        return String.join(" ", tokens);
-    }
-
-    private static String normalizeTokens(List<String> tokens) {
-        return joinTokens(tokens).toLowerCase(Locale.ROOT);
+        Optional<AliasLimit.Split> split = AliasLimit.split(CommandTokens.collapseWhitespace(withoutSlash));
+        if (split.isEmpty() || split.get().command().isEmpty()) {
+            return "";
+        }
+        String target = split.get().command();
+        if (MacroScript.isMacro(target) && MacroScript.parse(target).isEmpty()) {
+            return "";
+        }
+        return split.get().limit().toDirectives() + target;
     }
 
-    private String collapseWhitespace(String value) {
-        return value == null ? "" : value.trim().replaceAll("\\s+", " ");
+    private static boolean containsIgnoreCase(String value, String needle) {
+        for (int i = 0; i + needle.length() <= value.length(); i++) {
+            if (value.regionMatches(true, i, needle, 0, needle.length())) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private String stripLeadingSlash(String command) {
@@ -271,35 +937,494 @@ public final class AliasManager {
         return trimmed;
     }
 
-    private record Match(AliasRecord record, List<String> remainingTokens) { }
+    /**
+     * Number of aliases a reload added, removed and replaced with a different command, and of loaded
+     * aliases left out because they would close a resolution cycle. A left-out alias that replaced an
+     * existing one counts as removed.
+     */
+    public record ReloadResult(int added, int removed, int changed, int skipped) {
+        static final ReloadResult NONE = new ReloadResult(0, 0, 0, 0);
+
+        public boolean isEmpty() {
+            return added == 0 && removed == 0 && changed == 0;
+        }
+
+        ReloadResult plus(ReloadResult other) {
+            return new ReloadResult(added + other.added, removed + other.removed, changed + other.changed, skipped + other.skipped);
+        }
+    }
+
+    /**
+     * A table rebuilt for a reload, with the loaded aliases left out and the cycles they would close.
+     */
+    private record Rebuild(Diff diff, AliasTable table, List<AliasRecord> skipped, List<String> cycles) { }
 
+    /**
+     * Case-insensitive substring search over the joined tokens of records. A needle of several words
+     * matches a run of tokens: the first word ends a token, the middle ones equal whole tokens and the
+     * last starts a token. The outcome for the first and last word is remembered per token id, so a
+     * token shared by many aliases is compared once per search.
+     */
+    private static final class TokenSearch {
+        private static final byte UNKNOWN = 0;
+        private static final byte MATCH = 1;
+        private static final byte MISS = 2;
+
+        private final String needle;
+        private final String[] words;
+        private byte[] first = new byte[256];
+        private byte[] last = new byte[256];
+
+        TokenSearch(String needle) {
+            this.needle = needle;
+            this.words = needle.split(" ", -1);
+        }
+
+        boolean matches(AliasRecord record) {
+            if (matches(record.dictionary, record.tokens, 0, record.aliasLength)) {
+                return true;
+            }
+            if (record.command == null && record.limit.isNone()) {
+                return matches(record.dictionary, record.tokens, record.aliasLength, record.tokens.length);
+            }
+            return containsIgnoreCase(record.command(), needle);
+        }
+
+        private boolean matches(TokenDictionary dictionary, int[] tokens, int from, int to) {
+            int span = words.length - 1;
+            for (int i = from; i + span < to; i++) {
+                if (!matchesEnd(dictionary, tokens[i], true) || (span > 0 && !matchesEnd(dictionary, tokens[i + span], false))) {
+                    continue;
+                }
+                int word = 1;
+                while (word < span && dictionary.token(tokens[i + word]).equalsIgnoreCase(words[word])) {
+                    word++;
+                }
+                if (word >= span) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Whether token {@code id} can hold the first ({@code leading}) or last word of the needle; for a
+         * single word, whether it contains it.
+         */
+        private boolean matchesEnd(TokenDictionary dictionary, int id, boolean leading) {
+            byte[] memo = leading ? first : last;
+            if (id >= memo.length) {
+                memo = Arrays.copyOf(memo, Math.max(memo.length * 2, id + 1));
+                if (leading) {
+                    first = memo;
+                } else {
+                    last = memo;
+                }
+            }
+            if (memo[id] == UNKNOWN) {
+                String token = dictionary.token(id);
+                String word = leading ? words[0] : words[words.length - 1];
+                boolean match;
+                if (words.length == 1) {
+                    match = containsIgnoreCase(token, word);
+                } else if (leading) {
+                    match = token.length() >= word.length() && token.regionMatches(true, token.length() - word.length(), word, 0, word.length());
+                } else {
+                    match = token.regionMatches(true, 0, word, 0, word.length());
+                }
+                memo[id] = match ? MATCH : MISS;
+            }
+            return memo[id] == MATCH;
+        }
+    }
+
+    /**
+     * The aliases available to one sender; see {@link #aliasesFor(CommandSender)}.
+     */
+    public final class SenderAliases {
+        private final AliasTable global;
+        private final ScopeLayers layers;
+        private final CommandSender sender;
+        private AliasTable view;
+
+        private SenderAliases(AliasTable global, ScopeLayers layers, CommandSender sender) {
+            this.global = global;
+            this.layers = layers;
+            this.sender = sender;
+        }
+
+        /**
+         * Like {@link AliasManager#isAliasRoot(CharSequence, int)}, over these aliases. The root is first
+         * tested against every scope, which needs no permission checks.
+         */
+        public boolean isAliasRoot(CharSequence command, int from) {
+            if ((global.hasRoot(command, from) || layers.hasRoot(command, from)) && view().hasRoot(command, from)) {
+                return true;
+            }
+            metrics.skipped();
+            return false;
+        }
+
+        /**
+         * Resolves {@code inputTokens} against these aliases and renders the placeholders of the resulting
+         * command for the sender. Empty when the resolved macro would get steps from the typed arguments.
+         */
+        public Optional<String> resolveCommand(CommandTokens inputTokens) {
+            return resolve(inputTokens).filter(resolution -> !resolution.typedSteps()).map(Resolution::command);
+        }
+
+        /**
+         * Like {@link #resolveCommand(CommandTokens)}, also telling which alias matched and whether the
+         * command is a macro.
+         */
+        public Optional<Resolution> resolve(CommandTokens inputTokens) {
+            TraceSampling sampling = traceSampling;
+            ResolutionTrace trace = sampling == null ? null : sampling.sample(inputTokens);
+            long started = System.nanoTime();
+            Optional<Resolution> resolved = view().resolve(inputTokens, sender, metrics, trace);
+            long elapsed = System.nanoTime() - started;
+            metrics.resolution().record(elapsed);
+            if (trace != null && elapsed >= sampling.slowNanos()) {
+                logger.info(() -> "Slow alias resolution: " + trace);
+            }
+            return resolved;
+        }
+
+        private AliasTable view() {
+            if (view == null) {
+                view = views.viewFor(sender, global, layers);
+            }
+            return view;
+        }
+    }
+
+    private record TraceSampling(int rate, long slowNanos) {
+        ResolutionTrace sample(CommandTokens input) {
+            return ThreadLocalRandom.current().nextInt(rate) == 0 ? new ResolutionTrace(input.join(0, input.size())) : null;
+        }
+    }
+
+    /**
+     * Difference between a table and freshly loaded records. {@code records} is the loaded table with the
+     * live instance kept for every unchanged alias, {@code fresh} the added and changed records and
+     * {@code stale} the live records they replace or that were removed.
+     */
+    private record Diff(List<AliasRecord> records, List<AliasRecord> fresh, List<AliasRecord> stale, int added, int removed) {
+        static Diff of(AliasTable live, List<AliasRecord> loaded) {
+            List<AliasRecord> records = new ArrayList<>(loaded.size());
+            List<AliasRecord> fresh = new ArrayList<>();
+            List<AliasRecord> stale = new ArrayList<>();
+            BitSet present = new BitSet();
+            int added = 0;
+            for (AliasRecord record : loaded) {
+                present.set(record.key());
+                AliasRecord current = live.get(record.aliasTokens());
+                if (current != null && current.sameAs(record)) {
+                    records.add(current);
+                    continue;
+                }
+                records.add(record);
+                fresh.add(record);
+                if (current == null) {
+                    added++;
+                } else {
+                    stale.add(current);
+                }
+            }
+            int removed = 0;
+            for (AliasRecord current : live.records()) {
+                if (!present.get(current.key())) {
+                    stale.add(current);
+                    removed++;
+                }
+            }
+            return new Diff(records, fresh, stale, added, removed);
+        }
+
+        boolean isEmpty() {
+            return fresh.isEmpty() && stale.isEmpty();
+        }
+
+        int size() {
+            return fresh.size() + removed;
+        }
+
+        /**
+         * The result of applying this diff to {@code live}, given the fresh records left out.
+         */
+        ReloadResult result(AliasTable live, List<AliasRecord> skipped) {
+            int skippedAdds = 0;
+            for (AliasRecord record : skipped) {
+                if (live.get(record.aliasTokens()) == null) {
+                    skippedAdds++;
+                }
+            }
+            int skippedChanges = skipped.size() - skippedAdds;
+            return new ReloadResult(added - skippedAdds, removed + skippedChanges, fresh.size() - added - skippedChanges, skipped.size());
+        }
+    }
+
+    /**
+     * Outcome of resolving a command: the alias that matched and the command to run. {@code macro} is
+     * decided by the stored commands of the aliases the chain went through, never by typed arguments.
+     * {@code typedSteps} is set when a macro would also get {@code ;} or {@code @wait} tokens from the
+     * typed arguments; such a command must not run, as it would add steps the alias does not define.
+     */
+    public record Resolution(AliasRecord alias, String command, boolean macro, boolean typedSteps) { }
+
+    /**
+     * Outcome of {@link #importAliases(List)}. {@code invalid} and {@code conflicts} hold alias names as
+     * given; {@code cyclic} describes each skipped alias with the cycle it would have closed.
+     */
+    public record ImportResult(int added, List<String> invalid, List<String> conflicts, List<String> cyclic) { }
+
+    public enum AddResult {
+        ADDED,
+        INVALID,
+        DUPLICATE,
+        CYCLE
+    }
+
+    /**
+     * An alias and its command, stored as ids into the manager's {@link TokenDictionary}: the alias
+     * tokens followed by the command tokens in one array. Strings are built on demand, so callers on hot
+     * paths should prefer {@link #key()}, {@link #aliasLength()} and the comparisons here.
+     */
     public static final class AliasRecord {
-        private final String alias;
-        private final List<String> aliasTokens;
-        private final String normalizedAlias;
+        private final TokenDictionary dictionary;
+        private final int[] tokens;
+        private final int aliasLength;
+        private final int key;
+        private final boolean pattern;
+        private final boolean macro;
+        private final AliasLimit limit;
+        /**
+         * The command as stored when it is not the canonical directives and command tokens; usually null.
+         */
         private final String command;
 
-        private AliasRecord(String alias, List<String> aliasTokens, String command) {
-            this.alias = alias;
-            this.aliasTokens = List.copyOf(aliasTokens);
-            this.normalizedAlias = normalizeTokens(aliasTokens);
-            this.command = command;
+        private AliasRecord(TokenDictionary dictionary, List<String> aliasTokens, String command, AliasLimit.Split split) {
+            String[] commandTokens = split.command().split(" ", -1);
+            this.dictionary = dictionary;
+            this.tokens = new int[aliasTokens.size() + commandTokens.length];
+            this.aliasLength = aliasTokens.size();
+            boolean slots = false;
+            for (int i = 0; i < aliasLength; i++) {
+                tokens[i] = dictionary.intern(aliasTokens.get(i));
+                slots |= i > 0 && ParameterType.of(aliasTokens.get(i)) != null;
+            }
+            this.pattern = slots;
+            boolean separated = false;
+            for (int i = 0; i < commandTokens.length; i++) {
+                tokens[aliasLength + i] = dictionary.intern(commandTokens[i]);
+                separated |= commandTokens[i].equals(MacroScript.SEPARATOR);
+            }
+            this.macro = separated;
+            this.key = dictionary.key(tokens, 0, aliasLength);
+            this.limit = split.limit();
+            this.command = command.equals(limit.toDirectives() + split.command()) ? null : command;
         }
 
         public String alias() {
-            return alias;
+            return join(0, aliasLength);
         }
 
         public List<String> aliasTokens() {
-            return aliasTokens;
+            return new TokenList(dictionary, tokens, 0, aliasLength);
         }
 
+        public int aliasLength() {
+            return aliasLength;
+        }
+
+        /**
+         * The alias in lower case, with parameter slots reduced to the key of their type.
+         */
         public String normalizedAlias() {
-            return normalizedAlias;
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < aliasLength; i++) {
+                if (i > 0) {
+                    builder.append(' ');
+                }
+                builder.append(foldedToken(i));
+            }
+            return builder.toString();
+        }
+
+        /**
+         * Whether the alias has parameter slots ({@code {name}}, {@code {name:type}}).
+         */
+        public boolean isPattern() {
+            return pattern;
+        }
+
+        /**
+         * Whether the stored command is a macro, i.e. has a standalone {@code ;} token.
+         */
+        public boolean isMacro() {
+            return macro;
         }
 
+        /**
+         * Small non-negative number identifying the normalized alias. Every record for the same alias gets
+         * the same key for the life of the manager, in any scope and across reloads.
+         */
+        public int key() {
+            return key;
+        }
+
+        /**
+         * The command as stored, including limit directives.
+         */
         public String command() {
-            return command;
+            return command != null ? command : limit.toDirectives() + target();
+        }
+
+        /**
+         * The command the alias runs, without limit directives.
+         */
+        public String target() {
+            return join(aliasLength, tokens.length);
+        }
+
+        public AliasLimit limit() {
+            return limit;
+        }
+
+        /**
+         * Whether {@code other} spells the alias the same way and stores the same command.
+         */
+        boolean sameAs(AliasRecord other) {
+            return Arrays.equals(tokens, other.tokens) && limit.equals(other.limit) && Objects.equals(command, other.command);
+        }
+
+        /**
+         * Orders records like their normalized aliases, without building them. Alias tokens are ASCII, so
+         * their folded form is their lower-case form.
+         */
+        int compareAlias(AliasRecord other) {
+            for (int i = 0; i < aliasLength && i < other.aliasLength; i++) {
+                if (dictionary.folded(tokens[i]) == other.dictionary.folded(other.tokens[i])) {
+                    continue;
+                }
+                String left = foldedToken(i);
+                String right = other.foldedToken(i);
+                int length = Math.min(left.length(), right.length());
+                for (int j = 0; j < length; j++) {
+                    if (left.charAt(j) != right.charAt(j)) {
+                        return left.charAt(j) - right.charAt(j);
+                    }
+                }
+                // One token is a prefix of the other; the shorter one is followed by ' ' or ends.
+                return left.length() < right.length()
+                        ? separator(i) - right.charAt(length)
+                        : left.charAt(length) - other.separator(i);
+            }
+            return Integer.compare(aliasLength, other.aliasLength);
+        }
+
+        /**
+         * Compares the normalized alias with {@code normalized}, without building it.
+         */
+        int compareAlias(String normalized) {
+            int position = 0;
+            for (int i = 0; i < aliasLength; i++) {
+                if (i > 0) {
+                    if (position == normalized.length()) {
+                        return 1;
+                    }
+                    if (normalized.charAt(position) != ' ') {
+                        return ' ' - normalized.charAt(position);
+                    }
+                    position++;
+                }
+                String token = dictionary.token(dictionary.folded(tokens[i]));
+                for (int j = 0; j < token.length(); j++, position++) {
+                    if (position == normalized.length()) {
+                        return 1;
+                    }
+                    if (token.charAt(j) != normalized.charAt(position)) {
+                        return token.charAt(j) - normalized.charAt(position);
+                    }
+                }
+            }
+            return position == normalized.length() ? 0 : -1;
+        }
+
+        /**
+         * Number of tokens the alias takes from a command of {@code available} tokens that it matches: its
+         * own length, or all of them when it ends with a rest slot.
+         */
+        int matchedLength(int available) {
+            return pattern && ParameterType.ofKey(foldedToken(aliasLength - 1)) == ParameterType.REST ? available : aliasLength;
+        }
+
+        /**
+         * Folded alias token {@code index}, shared with every record that uses it.
+         */
+        String foldedToken(int index) {
+            return dictionary.token(dictionary.folded(tokens[index]));
+        }
+
+        /**
+         * Command tokens, as {@code target().split(" ")} would return them.
+         */
+        List<String> commandTokens() {
+            int end = tokens.length;
+            while (end > aliasLength + 1 && dictionary.token(tokens[end - 1]).isEmpty()) {
+                end--;
+            }
+            return new TokenList(dictionary, tokens, aliasLength, end);
+        }
+
+        /**
+         * The character after alias token {@code index} in the normalized alias, or -1 at its end.
+         */
+        private int separator(int index) {
+            return index + 1 < aliasLength ? ' ' : -1;
+        }
+
+        private String join(int from, int to) {
+            int length = to - from - 1;
+            for (int i = from; i < to; i++) {
+                length += dictionary.token(tokens[i]).length();
+            }
+            StringBuilder builder = new StringBuilder(Math.max(0, length));
+            for (int i = from; i < to; i++) {
+                if (i > from) {
+                    builder.append(' ');
+                }
+                builder.append(dictionary.token(tokens[i]));
+            }
+            return builder.toString();
+        }
+    }
+
+    /**
+     * Read-only view of a range of token ids as strings.
+     */
+    private static final class TokenList extends AbstractList<String> implements RandomAccess {
+        private final TokenDictionary dictionary;
+        private final int[] tokens;
+        private final int from;
+        private final int to;
+
+        private TokenList(TokenDictionary dictionary, int[] tokens, int from, int to) {
+            this.dictionary = dictionary;
+            this.tokens = tokens;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public String get(int index) {
+            Objects.checkIndex(index, to - from);
+            return dictionary.token(tokens[from + index]);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
         }
     }
 }
@@ -1,21 +1,56 @@
 package com.levyxx.minecraftalias;
 
+import com.levyxx.minecraftalias.AliasManager.ReloadResult;
 import com.levyxx.minecraftalias.commands.AliasCommand;
+import com.levyxx.minecraftalias.commands.NativeAliasCommands;
+import com.levyxx.minecraftalias.limits.AliasLimit;
+import com.levyxx.minecraftalias.limits.AliasLimiter;
 import com.levyxx.minecraftalias.listeners.AliasListener;
+import com.levyxx.minecraftalias.macros.MacroScheduler;
+import com.levyxx.minecraftalias.metrics.AliasStats;
+import com.levyxx.minecraftalias.storage.AliasFileWatcher;
+import com.levyxx.minecraftalias.storage.AliasStorage;
+import com.levyxx.minecraftalias.storage.BinarySnapshotStorage;
+import com.levyxx.minecraftalias.storage.JournalAliasStorage;
+import com.levyxx.minecraftalias.storage.ScopedAliasStorage;
+import com.levyxx.minecraftalias.storage.YamlAliasStorage;
 import org.bukkit.command.PluginCommand;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
 public final class AliasPlugin extends JavaPlugin {
     private AliasManager aliasManager;
+    private NativeAliasCommands nativeCommands;
+    private MacroScheduler macros;
+    private AliasLimiter limiter;
+    private ScopedAliasStorage scopeStorage;
+    private AliasFileWatcher watcher;
 
     @Override
     public void onEnable() {
         saveDefaultConfig();
 
-        aliasManager = new AliasManager(this);
+        scopeStorage = new ScopedAliasStorage(new File(getDataFolder(), "scopes").toPath(), getLogger(),
+                getConfig().getLong("persistence.save-delay-ms", 1000L));
+        aliasManager = new AliasManager(createStorage(), scopeStorage, getLogger());
         aliasManager.reload();
+        aliasManager.setTraceSampling(getConfig().getInt("trace.sample-rate", 0),
+                TimeUnit.MICROSECONDS.toNanos(getConfig().getLong("trace.slow-threshold-us", 500L)));
 
-        AliasCommand aliasCommand = new AliasCommand(aliasManager);
+        AliasCommand aliasCommand = new AliasCommand(this, aliasManager);
         PluginCommand command = getCommand("alias");
         if (command == null) {
             getLogger().severe("Failed to register /alias command. Check plugin.yml configuration.");
@@ -24,15 +59,130 @@ public final class AliasPlugin extends JavaPlugin {
             command.setTabCompleter(aliasCommand);
         }
 
-        getServer().getPluginManager().registerEvents(new AliasListener(aliasManager, getLogger()), this);
+        limiter = new AliasLimiter(this, aliasManager, playerLimit(), getConfig().getLong("limits.sweep-interval-seconds", 60L));
+        limiter.start();
+
+        macros = new MacroScheduler(this, aliasManager, limiter,
+                getConfig().getInt("macros.commands-per-tick", 20),
+                TimeUnit.MILLISECONDS.toNanos(getConfig().getLong("macros.tick-budget-ms", 5L)),
+                getConfig().getInt("macros.max-queued-per-player", 100));
+        macros.start();
+
+        nativeCommands = new NativeAliasCommands(this, aliasManager, macros, limiter);
+        if (getConfig().getBoolean("native-commands", false)) {
+            nativeCommands.enable();
+        }
+
+        getServer().getPluginManager().registerEvents(new AliasListener(aliasManager, nativeCommands, macros, limiter), this);
+        if (getConfig().getBoolean("hot-reload.enabled", true)) {
+            startWatcher();
+        }
+        registerStatsMBean();
         getLogger().info(() -> String.format("Loaded %d custom alias(es).", aliasManager.size()));
     }
 
     @Override
     public void onDisable() {
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+        if (macros != null) {
+            macros.stop();
+        }
+        if (nativeCommands != null) {
+            nativeCommands.disable();
+        }
+        if (limiter != null) {
+            limiter.stop();
+        }
         if (aliasManager != null) {
+            unregisterStatsMBean();
+            getLogger().info(() -> "Alias lookups: " + aliasManager.metrics().hitCount() + " resolved, "
+                    + aliasManager.metrics().missCount() + " unresolved, "
+                    + aliasManager.metrics().skippedCount() + " skipped by the first-word filter.");
             aliasManager.save();
+            aliasManager.close();
+        }
+    }
+
+    private void registerStatsMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(AliasStats.OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(new AliasStats(aliasManager), name);
+        } catch (JMException e) {
+            getLogger().log(Level.WARNING, "Failed to register alias statistics MBean.", e);
+        }
+    }
+
+    private void unregisterStatsMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(AliasStats.OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            getLogger().log(Level.WARNING, "Failed to unregister alias statistics MBean.", e);
+        }
+    }
+
+    private void startWatcher() {
+        Path configFile = new File(getDataFolder(), "config.yml").toPath();
+        List<Path> directories = new ArrayList<>(scopeStorage.directories());
+        directories.add(getDataFolder().toPath());
+        watcher = new AliasFileWatcher(directories,
+                file -> file.equals(configFile) || scopeStorage.scopeOf(file).isPresent(),
+                getConfig().getLong("hot-reload.debounce-ms", 500L), getLogger(), files -> reloadChanged(configFile, files));
+        if (!watcher.start()) {
+            watcher = null;
+        }
+    }
+
+    /**
+     * Runs on the watcher thread.
+     */
+    private void reloadChanged(Path configFile, Set<Path> files) {
+        for (Path file : files) {
+            Optional<ReloadResult> result = file.equals(configFile)
+                    ? aliasManager.reloadGlobal()
+                    : scopeStorage.scopeOf(file).flatMap(aliasManager::reloadScope);
+            result.filter(reload -> !reload.isEmpty()).ifPresent(reload -> getLogger().info(() -> String.format(
+                    "Reloaded %s: %d added, %d removed, %d changed, %d skipped.", getDataFolder().toPath().relativize(file),
+                    reload.added(), reload.removed(), reload.changed(), reload.skipped())));
+        }
+    }
+
+    private AliasLimit playerLimit() {
+        String rate = getConfig().getString("limits.player-rate", "");
+        if (rate == null || rate.isBlank() || "0".equals(rate.trim())) {
+            return AliasLimit.NONE;
+        }
+        return AliasLimit.parseRate(rate.trim()).orElseGet(() -> {
+            getLogger().warning(() -> "Invalid limits.player-rate '" + rate + "'. Expected <count>/<duration>, e.g. 20/10s.");
+            return AliasLimit.NONE;
+        });
+    }
+
+    private AliasStorage createStorage() {
+        File configFile = new File(getDataFolder(), "config.yml");
+        YamlAliasStorage yaml = new YamlAliasStorage(configFile, getLogger(), getConfig().getLong("persistence.save-delay-ms", 1000L));
+
+        String type = getConfig().getString("storage.type", "yaml").toLowerCase(Locale.ROOT);
+        if ("journal".equals(type)) {
+            return new JournalAliasStorage(getDataFolder(), getLogger(), yaml, getConfig().getInt("storage.journal.compact-threshold", 1000));
+        }
+        if (!"yaml".equals(type)) {
+            getLogger().warning(() -> "Unknown storage.type '" + type + "'. Falling back to yaml.");
+        }
+        if (getConfig().getBoolean("storage.binary-snapshot", false)) {
+            return new BinarySnapshotStorage(yaml, configFile.toPath(), getLogger());
         }
+        return yaml;
     }
 
     public AliasManager getAliasManager() {
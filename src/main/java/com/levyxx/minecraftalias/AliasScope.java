@@ -0,0 +1,52 @@
+package com.levyxx.minecraftalias;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Layer an alias is defined in. A player's own aliases override those of their groups, which override
+ * global aliases. Players belong to group {@code name} through the permission {@link #permission()}.
+ */
+public record AliasScope(Kind kind, String name) {
+    public static final AliasScope GLOBAL = new AliasScope(Kind.GLOBAL, "");
+    public static final String GROUP_PERMISSION_PREFIX = "minecraftalias.group.";
+
+    private static final Pattern GROUP_NAME_PATTERN = Pattern.compile("^[a-z0-9_\\-]{1,32}$");
+
+    /**
+     * Returns the scope of group {@code name}, or empty when the name is not a valid group name.
+     */
+    public static Optional<AliasScope> group(String name) {
+        String normalized = name.toLowerCase(Locale.ROOT);
+        if (!GROUP_NAME_PATTERN.matcher(normalized).matches()) {
+            return Optional.empty();
+        }
+        return Optional.of(new AliasScope(Kind.GROUP, normalized));
+    }
+
+    public static AliasScope player(UUID playerId) {
+        return new AliasScope(Kind.PLAYER, playerId.toString());
+    }
+
+    public UUID playerId() {
+        if (kind != Kind.PLAYER) {
+            throw new IllegalStateException("Not a player scope: " + this);
+        }
+        return UUID.fromString(name);
+    }
+
+    public String permission() {
+        if (kind != Kind.GROUP) {
+            throw new IllegalStateException("Not a group scope: " + this);
+        }
+        return GROUP_PERMISSION_PREFIX + name;
+    }
+
+    public enum Kind {
+        GLOBAL,
+        GROUP,
+        PLAYER
+    }
+}
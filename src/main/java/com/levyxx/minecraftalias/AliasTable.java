@@ -0,0 +1,493 @@
+package com.levyxx.minecraftalias;
+
+import com.levyxx.minecraftalias.AliasManager.AliasRecord;
+import com.levyxx.minecraftalias.AliasManager.Resolution;
+import com.levyxx.minecraftalias.ResolutionTrace.Stage;
+import com.levyxx.minecraftalias.macros.MacroScript;
+import com.levyxx.minecraftalias.metrics.AliasMetrics;
+import com.levyxx.minecraftalias.placeholders.CommandTemplate;
+import com.levyxx.minecraftalias.placeholders.PlaceholderRegistry;
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Immutable snapshot of the alias table. Writers derive a new table for every change, so readers can
+ * resolve commands against whichever snapshot they obtained without locking.
+ */
+final class AliasTable {
+    private static final Comparator<AliasRecord> ORDER = AliasRecord::compareAlias;
+
+    private final AliasTrie trie;
+    private final AliasRecord[] sorted;
+    private final List<AliasRecord> sortedView;
+    private final PlaceholderRegistry placeholders;
+    private final Map<AliasRecord, Expansion> expansions = new ConcurrentHashMap<>();
+    private volatile Map<String, List<AliasRecord>> byTargetRoot;
+
+    private AliasTable(AliasTrie trie, AliasRecord[] sorted, PlaceholderRegistry placeholders) {
+        this.trie = trie;
+        this.sorted = sorted;
+        this.sortedView = Collections.unmodifiableList(Arrays.asList(sorted));
+        this.placeholders = placeholders;
+    }
+
+    /**
+     * Empty table; chained expansions compile their templates against {@code placeholders}.
+     */
+    static AliasTable empty(PlaceholderRegistry placeholders) {
+        return new AliasTable(AliasTrie.EMPTY, new AliasRecord[0], placeholders);
+    }
+
+    /**
+     * Builds a table from records that are already unique by normalized alias.
+     */
+    static AliasTable of(Collection<AliasRecord> records, PlaceholderRegistry placeholders) {
+        AliasRecord[] sorted = records.toArray(new AliasRecord[0]);
+        Arrays.parallelSort(sorted, ORDER);
+        return new AliasTable(AliasTrie.of(records), sorted, placeholders);
+    }
+
+    AliasTable with(AliasRecord record) {
+        int index = Arrays.binarySearch(sorted, record, ORDER);
+        if (index >= 0) {
+            throw new IllegalArgumentException("Alias already present: " + record.alias());
+        }
+
+        int insertion = -index - 1;
+        AliasRecord[] updated = new AliasRecord[sorted.length + 1];
+        System.arraycopy(sorted, 0, updated, 0, insertion);
+        updated[insertion] = record;
+        System.arraycopy(sorted, insertion, updated, insertion + 1, sorted.length - insertion);
+        return new AliasTable(trie.with(record), updated, placeholders);
+    }
+
+    AliasTable without(AliasRecord record) {
+        int index = Arrays.binarySearch(sorted, record, ORDER);
+        if (index < 0) {
+            return this;
+        }
+
+        AliasRecord[] updated = new AliasRecord[sorted.length - 1];
+        System.arraycopy(sorted, 0, updated, 0, index);
+        System.arraycopy(sorted, index + 1, updated, index, sorted.length - index - 1);
+        return new AliasTable(trie.without(record.aliasTokens()), updated, placeholders);
+    }
+
+    /**
+     * Returns this table with {@code records} laid over it, replacing records with the same alias. A
+     * record that would close a resolution cycle is left out and passed to {@code skipped}. The trie
+     * shares every node off the changed paths with this table.
+     */
+    AliasTable overlay(Collection<AliasRecord> records, Consumer<AliasRecord> skipped) {
+        if (records.isEmpty()) {
+            return this;
+        }
+
+        AliasTrie updated = trie;
+        List<AliasRecord> accepted = new ArrayList<>(records.size());
+        for (AliasRecord record : records) {
+            AliasTrie candidate = updated.with(record);
+            if (candidate.findCycle(record).isEmpty()) {
+                updated = candidate;
+                accepted.add(record);
+            } else {
+                skipped.accept(record);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return this;
+        }
+
+        AliasRecord[] top = accepted.toArray(new AliasRecord[0]);
+        Arrays.sort(top, ORDER);
+        AliasRecord[] merged = new AliasRecord[sorted.length + top.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < sorted.length || j < top.length) {
+            int order = i == sorted.length ? 1 : j == top.length ? -1 : ORDER.compare(sorted[i], top[j]);
+            if (order < 0) {
+                merged[size++] = sorted[i++];
+            } else {
+                if (order == 0) {
+                    i++;
+                }
+                merged[size++] = top[j++];
+            }
+        }
+        return new AliasTable(updated, size == merged.length ? merged : Arrays.copyOf(merged, size), placeholders);
+    }
+
+    /**
+     * The cycle {@link #findCycle(AliasRecord)} would report if {@code record} were added, replacing an
+     * alias with the same tokens.
+     */
+    List<AliasRecord> findCycleIfAdded(AliasRecord record) {
+        return trie.with(record).findCycle(record);
+    }
+
+    /**
+     * The alias with the longest match at the start of {@code input}, or null. Player slots of pattern
+     * aliases match players online on {@code sender}'s server.
+     */
+    AliasRecord match(CommandTokens input, CommandSender sender) {
+        return sorted.length == 0 || input.isEmpty() ? null : trie.findLongestMatch(input, sender);
+    }
+
+    AliasRecord get(List<String> aliasTokens) {
+        return trie.get(aliasTokens);
+    }
+
+    /**
+     * Records ordered by normalized alias.
+     */
+    List<AliasRecord> records() {
+        return sortedView;
+    }
+
+    int size() {
+        return sorted.length;
+    }
+
+    /**
+     * Records whose normalized alias starts with {@code prefix}, as a view of the sorted records.
+     */
+    List<AliasRecord> withPrefix(String prefix) {
+        if (prefix.isEmpty()) {
+            return sortedView;
+        }
+        char last = prefix.charAt(prefix.length() - 1);
+        String end = prefix.substring(0, prefix.length() - 1) + (char) (last + 1);
+        return sortedView.subList(lowerBound(prefix), lowerBound(end));
+    }
+
+    /**
+     * Records whose command starts with {@code root} (lower case), in alias order. The reverse index is
+     * built on first use and then shared by every query against this snapshot.
+     */
+    List<AliasRecord> targeting(String root) {
+        Map<String, List<AliasRecord>> index = byTargetRoot;
+        if (index == null) {
+            Map<String, List<AliasRecord>> built = new HashMap<>();
+            for (AliasRecord record : sorted) {
+                String target = record.commandTokens().get(0).toLowerCase(Locale.ROOT);
+                built.computeIfAbsent(target, key -> new ArrayList<>()).add(record);
+            }
+            built.replaceAll((key, records) -> Collections.unmodifiableList(records));
+            index = built;
+            byTargetRoot = index;
+        }
+        return index.getOrDefault(root, List.of());
+    }
+
+    /**
+     * Distinct first tokens (lower case) in alias order. Aliases sharing a first token are adjacent in
+     * the sorted records, so comparing with the previous root is enough.
+     */
+    Set<String> roots() {
+        Set<String> roots = new LinkedHashSet<>();
+        String previous = null;
+        for (AliasRecord record : sorted) {
+            String root = record.foldedToken(0);
+            if (!root.equals(previous)) {
+                roots.add(root);
+                previous = root;
+            }
+        }
+        return Collections.unmodifiableSet(roots);
+    }
+
+    /**
+     * Completes the last token of {@code prefix}, a lower-case alias prefix with single spaces between
+     * tokens. Returns the distinct values of that token among the aliases starting with {@code prefix}, in
+     * alias order and at most {@code limit} of them. Each value costs one binary search, so the result is
+     * found without scanning or copying the table.
+     */
+    List<String> completeToken(String prefix, int limit) {
+        int tokenIndex = 0;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (prefix.charAt(i) == ' ') {
+                tokenIndex++;
+            }
+        }
+
+        List<String> completions = new ArrayList<>(Math.min(limit, 16));
+        int index = lowerBound(prefix);
+        while (index < sorted.length && completions.size() < limit) {
+            String normalized = sorted[index].normalizedAlias();
+            if (!normalized.startsWith(prefix)) {
+                break;
+            }
+
+            String token = sorted[index].aliasTokens().get(tokenIndex);
+            if (ParameterType.of(token) == null) {
+                completions.add(token);
+            }
+            int tokenEnd = normalized.indexOf(' ', prefix.length());
+            // '!' follows ' ', so this skips the aliases that only differ after the completed token.
+            index = lowerBound((tokenEnd < 0 ? normalized : normalized.substring(0, tokenEnd)) + '!');
+        }
+        return completions;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle].compareAlias(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Checks the first word of {@code text[from..]} against the first tokens of all aliases, in place and
+     * without tokenizing the rest of the command.
+     */
+    boolean hasRoot(CharSequence text, int from) {
+        int length = text.length();
+        int start = from;
+        while (start < length && CommandTokens.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        int end = start;
+        while (end < length && !CommandTokens.isWhitespace(text.charAt(end))) {
+            end++;
+        }
+        return start < end && trie.hasRoot(text, start, end);
+    }
+
+    /**
+     * @see AliasTrie#findCycle(AliasRecord)
+     */
+    List<AliasRecord> findCycle(AliasRecord record) {
+        return trie.findCycle(record);
+    }
+
+    /**
+     * @see AliasTrie#cyclicRecords(Collection)
+     */
+    Set<AliasRecord> cyclicRecords() {
+        return trie.cyclicRecords(sortedView);
+    }
+
+    /**
+     * Resolves {@code input} and renders the placeholders of the result for {@code sender}, which may be
+     * null. The outcome is counted in {@code metrics} and each stage recorded in {@code trace}, either of
+     * which may be null. A traced resolution expands the chain again instead of taking it from the cache,
+     * so that every hop is recorded.
+     */
+    Optional<Resolution> resolve(CommandTokens input, CommandSender sender, AliasMetrics metrics, ResolutionTrace trace) {
+        AliasRecord record = match(input, sender);
+        if (record == null) {
+            if (metrics != null) {
+                metrics.miss();
+            }
+            if (trace != null) {
+                trace.step(Stage.MATCH, "");
+            }
+            return Optional.empty();
+        }
+
+        int consumed = record.matchedLength(input.size());
+        if (trace != null) {
+            trace.step(Stage.MATCH, describeMatch(record, input));
+        }
+        Expansion expansion = Expansion.STEPWISE;
+        if (!record.isPattern()) {
+            expansion = trace == null ? expansions.get(record) : null;
+            if (expansion == null) {
+                expansion = expand(record, trace);
+                expansions.putIfAbsent(record, expansion);
+            }
+        }
+        Resolution resolved;
+        if (expansion.isStepwise() || (expansion.argumentSensitive() && consumed < input.size())) {
+            resolved = resolveStepwise(record, input, sender, trace);
+        } else {
+            String command = render(expansion.command(), expansion.template(), input, consumed, sender);
+            if (trace != null) {
+                trace.step(Stage.RENDER, expansion.command() + " -> " + command);
+            }
+            resolved = resolution(record, command, expansion.macro(), input);
+        }
+        if (metrics != null) {
+            metrics.hit(record);
+        }
+        if (trace != null) {
+            trace.result(resolved.command());
+        }
+        return Optional.of(resolved);
+    }
+
+    /**
+     * Typed tokens reach the command through positional and slot placeholders and as trailing arguments.
+     * Alias tokens can be neither {@code ;} nor {@code @wait}, so any such input token was typed.
+     */
+    private static Resolution resolution(AliasRecord record, String command, boolean macro, CommandTokens input) {
+        boolean typedSteps = false;
+        for (int i = 0; macro && !typedSteps && i < input.size(); i++) {
+            typedSteps = input.tokenEquals(i, MacroScript.SEPARATOR) || input.tokenEquals(i, MacroScript.WAIT);
+        }
+        return new Resolution(record, command, macro, typedSteps);
+    }
+
+    private static String describeMatch(AliasRecord record, CommandTokens input) {
+        StringBuilder builder = new StringBuilder("/").append(record.alias());
+        if (!record.limit().isNone()) {
+            builder.append(" [").append(record.limit().toDirectives().trim()).append(']');
+        }
+        int consumed = record.matchedLength(input.size());
+        if (consumed < input.size()) {
+            builder.append(" + ");
+            input.appendRange(builder, consumed, input.size());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Renders {@code command} followed by the arguments {@code input[from..]} that its template did not
+     * consume.
+     */
+    private static String render(String command, CommandTemplate template, CommandTokens input, int from, CommandSender sender) {
+        if (template.isLiteral() && from == input.size()) {
+            return command;
+        }
+
+        int argumentsLength = from < input.size() ? input.end(input.size() - 1) - input.start(from) : 0;
+        StringBuilder builder = new StringBuilder(command.length() + 1 + argumentsLength);
+        int next = from;
+        if (template.isLiteral()) {
+            builder.append(command);
+        } else {
+            next = template.render(sender, input, from, builder);
+        }
+        if (next < input.size()) {
+            builder.append(' ');
+            input.appendRange(builder, next, input.size());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Follows the alias chain of {@code record} as if it were invoked without trailing arguments. The
+     * result is flagged argument-sensitive when a trailing argument could have extended one of the
+     * matches, in which case callers with arguments must resolve step by step. A chain that reaches
+     * pattern aliases is always resolved step by step.
+     */
+    private Expansion expand(AliasRecord record, ResolutionTrace trace) {
+        List<String> tokens = record.commandTokens();
+        boolean argumentSensitive = false;
+        boolean macro = record.isMacro();
+        int hops = 0;
+        if (trace != null) {
+            trace.step(Stage.HOP, "/" + record.alias() + " -> " + record.target());
+        }
+
+        while (true) {
+            if (trie.reachesParameters(tokens)) {
+                return Expansion.STEPWISE;
+            }
+            argumentSensitive |= trie.isPrefixOfLongerAlias(tokens);
+            AliasRecord match = trie.findLongestMatch(tokens, null);
+            if (match == null) {
+                String command = hops == 0 ? record.target() : String.join(" ", tokens);
+                return new Expansion(command, argumentSensitive, macro, CommandTemplate.compile(command, placeholders));
+            }
+            hops = checkHops(hops, record);
+            macro |= match.isMacro();
+            tokens = rewrite(match, tokens);
+            if (trace != null) {
+                trace.step(Stage.HOP, "/" + match.alias() + " -> " + String.join(" ", tokens));
+            }
+        }
+    }
+
+    /**
+     * Resolves hop by hop. Positional placeholders refer to the typed arguments that no alias consumed,
+     * which always remain at the end of the rewritten command; arguments captured by slots are
+     * substituted into the command of their alias.
+     */
+    private Resolution resolveStepwise(AliasRecord record, CommandTokens input, CommandSender sender, ResolutionTrace trace) {
+        List<String> tokens = input.toList();
+        int typedArguments = tokens.size();
+        boolean macro = false;
+        int hops = 0;
+        if (trace != null) {
+            trace.step(Stage.ARGUMENTS, String.join(" ", tokens));
+        }
+
+        for (AliasRecord match = record; match != null; match = trie.findLongestMatch(tokens, sender)) {
+            hops = checkHops(hops, record);
+            macro |= match.isMacro();
+            typedArguments = Math.min(typedArguments, tokens.size() - match.matchedLength(tokens.size()));
+            tokens = rewrite(match, tokens);
+            if (trace != null) {
+                trace.step(Stage.HOP, "/" + match.alias() + " -> " + String.join(" ", tokens));
+            }
+        }
+
+        String command = String.join(" ", tokens.subList(0, tokens.size() - typedArguments));
+        CommandTemplate template = CommandTemplate.compile(command, placeholders);
+        String resolved = render(command, template, input, input.size() - typedArguments, sender);
+        if (trace != null) {
+            trace.step(Stage.RENDER, command + " -> " + resolved);
+        }
+        return resolution(record, resolved, macro, input);
+    }
+
+    /**
+     * Tables are kept free of cycles when aliases are added or loaded, so a chain can visit each alias at
+     * most once. Exceeding that means the invariant was broken; fail instead of hanging the server thread.
+     */
+    private int checkHops(int hops, AliasRecord record) {
+        if (hops >= sorted.length) {
+            throw new IllegalStateException("Alias chain of '" + record.alias() + "' does not terminate");
+        }
+        return hops + 1;
+    }
+
+    private static List<String> rewrite(AliasRecord match, List<String> tokens) {
+        List<String> commandTokens = match.isPattern()
+                ? Arrays.asList(ParameterType.substitute(match.target(), match.aliasTokens(), tokens).split(" "))
+                : match.commandTokens();
+        List<String> rewritten = new ArrayList<>(commandTokens.size() + tokens.size());
+        rewritten.addAll(commandTokens);
+        rewritten.addAll(tokens.subList(match.matchedLength(tokens.size()), tokens.size()));
+        return rewritten;
+    }
+
+    /**
+     * Fully expanded target of an alias invoked without arguments, with its compiled template and whether
+     * any alias on the chain stores a macro. Templates are only compiled for aliases that are used, and live
+     * as long as the snapshot.
+     */
+    private record Expansion(String command, boolean argumentSensitive, boolean macro, CommandTemplate template) {
+        /**
+         * Marks a chain that depends on more than its own tokens and is resolved step by step every time.
+         */
+        static final Expansion STEPWISE = new Expansion(null, true, false, null);
+
+        boolean isStepwise() {
+            return command == null;
+        }
+    }
+}
@@ -0,0 +1,595 @@
+package com.levyxx.minecraftalias;
+
+import com.levyxx.minecraftalias.AliasManager.AliasRecord;
+import com.levyxx.minecraftalias.macros.MacroScript;
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable case-folded token trie used to find the longest alias that prefixes a command.
+ * Updates copy only the nodes on the changed path; untouched subtrees are shared between versions.
+ * <p>
+ * Children are kept in open-addressing tables keyed by folded tokens, so lookups can hash and compare
+ * a region of the input in place instead of allocating a lower-cased copy of each token. Keys are the
+ * folded strings of the records' {@link TokenDictionary}, shared by every node and version.
+ * <p>
+ * Parameter slots of pattern aliases are edges of the same trie, one per {@link ParameterType} at a node
+ * and shared by every pattern that has a slot of that type there. Matching a command therefore costs the
+ * same with one pattern alias or thousands; only nodes with slots make it try more than one edge.
+ */
+final class AliasTrie {
+    static final AliasTrie EMPTY = new AliasTrie(new Node());
+
+    private final Node root;
+
+    private AliasTrie(Node root) {
+        this.root = root;
+    }
+
+    static AliasTrie of(Collection<AliasRecord> records) {
+        Node root = new Node();
+        for (AliasRecord record : records) {
+            Node node = root;
+            for (int i = 0; i < record.aliasLength(); i++) {
+                String key = record.foldedToken(i);
+                Node child = node.next(key);
+                if (child == null) {
+                    child = new Node();
+                    node.putInPlace(key, child);
+                }
+                node = child;
+            }
+            node.record = record;
+        }
+        return new AliasTrie(root);
+    }
+
+    AliasTrie with(AliasRecord record) {
+        return new AliasTrie(with(root, record, 0));
+    }
+
+    AliasTrie without(List<String> aliasTokens) {
+        Node updated = without(root, aliasTokens, 0);
+        return updated == root ? this : new AliasTrie(updated == null ? EMPTY.root : updated);
+    }
+
+    AliasRecord get(List<String> aliasTokens) {
+        Node node = root;
+        for (String token : aliasTokens) {
+            ParameterType slot = ParameterType.of(token);
+            node = slot != null ? node.parameter(slot) : node.child(token, 0, token.length());
+            if (node == null) {
+                return null;
+            }
+        }
+        return node.record;
+    }
+
+    /**
+     * The alias matching the start of {@code tokens}: the longest literal match, unless a node on the way
+     * has parameter slots, from where {@link #match(Node, List, int, CommandSender)} decides.
+     */
+    AliasRecord findLongestMatch(List<String> tokens, CommandSender sender) {
+        AliasRecord best = null;
+        Node node = root;
+        for (int i = 0; i < tokens.size(); i++) {
+            if (node.parameters != null) {
+                AliasRecord match = match(node, tokens, i, sender);
+                return match != null ? match : best;
+            }
+            String token = tokens.get(i);
+            node = node.child(token, 0, token.length());
+            if (node == null) {
+                break;
+            }
+            if (node.record != null) {
+                best = node.record;
+            }
+        }
+        return best;
+    }
+
+    AliasRecord findLongestMatch(CommandTokens tokens, CommandSender sender) {
+        AliasRecord best = null;
+        Node node = root;
+        CharSequence source = tokens.source();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (node.parameters != null) {
+                AliasRecord match = match(node, tokens, i, sender);
+                return match != null ? match : best;
+            }
+            node = node.child(source, tokens.start(i), tokens.end(i));
+            if (node == null) {
+                break;
+            }
+            if (node.record != null) {
+                best = node.record;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The alias matched from {@code node} on by {@code tokens[index..]}, or the alias at {@code node}
+     * itself. The literal edge is followed first, then every slot the token fits in priority order; the
+     * first edge that leads to an alias decides.
+     */
+    private static AliasRecord match(Node node, CommandTokens tokens, int index, CommandSender sender) {
+        if (index < tokens.size()) {
+            CharSequence source = tokens.source();
+            int start = tokens.start(index);
+            int end = tokens.end(index);
+            Node literal = node.child(source, start, end);
+            AliasRecord match = literal == null ? null : match(literal, tokens, index + 1, sender);
+            if (match != null) {
+                return match;
+            }
+            if (node.parameters != null) {
+                for (ParameterType type : ParameterType.VALUES) {
+                    Node slot = node.parameters[type.ordinal()];
+                    if (slot != null && type.matches(source, start, end, sender)) {
+                        match = type == ParameterType.REST ? slot.record : match(slot, tokens, index + 1, sender);
+                        if (match != null) {
+                            return match;
+                        }
+                    }
+                }
+            }
+        }
+        return node.record;
+    }
+
+    private static AliasRecord match(Node node, List<String> tokens, int index, CommandSender sender) {
+        if (index < tokens.size()) {
+            String token = tokens.get(index);
+            Node literal = node.child(token, 0, token.length());
+            AliasRecord match = literal == null ? null : match(literal, tokens, index + 1, sender);
+            if (match != null) {
+                return match;
+            }
+            if (node.parameters != null) {
+                for (ParameterType type : ParameterType.VALUES) {
+                    Node slot = node.parameters[type.ordinal()];
+                    if (slot != null && type.matches(token, 0, token.length(), sender)) {
+                        match = type == ParameterType.REST ? slot.record : match(slot, tokens, index + 1, sender);
+                        if (match != null) {
+                            return match;
+                        }
+                    }
+                }
+            }
+        }
+        return node.record;
+    }
+
+    /**
+     * Returns whether some alias starts with the token {@code text[start, end)}.
+     */
+    boolean hasRoot(CharSequence text, int start, int end) {
+        return root.child(text, start, end) != null;
+    }
+
+    /**
+     * Returns whether some alias starts with all of {@code tokens} and continues past them, i.e. whether
+     * appending further tokens could change the longest match.
+     */
+    boolean isPrefixOfLongerAlias(List<String> tokens) {
+        Node node = root;
+        for (String token : tokens) {
+            node = node.child(token, 0, token.length());
+            if (node == null) {
+                return false;
+            }
+        }
+        return node.hasChildren();
+    }
+
+    /**
+     * Returns whether matching {@code tokens} passes a node with parameter slots, so that the match can
+     * depend on which players are online as well as on the tokens.
+     */
+    boolean reachesParameters(List<String> tokens) {
+        Node node = root;
+        for (String token : tokens) {
+            if (node.parameters != null) {
+                return true;
+            }
+            node = node.child(token, 0, token.length());
+            if (node == null) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the aliases on a resolution cycle through {@code start}, beginning with {@code start} and
+     * ending just before it would be reached again, or an empty list when there is none.
+     *
+     * @see #cyclicRecords(Collection)
+     */
+    List<AliasRecord> findCycle(AliasRecord start) {
+        Map<Object, Object> parents = new IdentityHashMap<>();
+        Deque<Object> pending = new ArrayDeque<>();
+        List<Object> successors = new ArrayList<>();
+        pending.push(start);
+        while (!pending.isEmpty()) {
+            Object vertex = pending.pop();
+            successors.clear();
+            successors(vertex, successors);
+            for (Object successor : successors) {
+                if (successor == start) {
+                    List<AliasRecord> cycle = new ArrayList<>();
+                    for (Object step = vertex; step != null; step = parents.get(step)) {
+                        if (step instanceof AliasRecord record) {
+                            cycle.add(record);
+                        }
+                    }
+                    Collections.reverse(cycle);
+                    return cycle;
+                }
+                if (!parents.containsKey(successor)) {
+                    parents.put(successor, vertex);
+                    pending.push(successor);
+                }
+            }
+        }
+        return List.of();
+    }
+
+    /**
+     * Returns every record of {@code records} that lies on a resolution cycle, found with Tarjan's
+     * strongly connected components algorithm.
+     * <p>
+     * An alias A leads to alias B when B's tokens prefix A's command, or when A's command is a proper
+     * prefix of B's tokens and trailing arguments could complete it. The second kind of edge goes through
+     * the trie node that A's command ends at, which leads to every alias below it; modelling nodes as
+     * vertices keeps the graph linear in the size of the trie.
+     */
+    Set<AliasRecord> cyclicRecords(Collection<AliasRecord> records) {
+        Map<Object, int[]> states = new IdentityHashMap<>();
+        Deque<Object> stack = new ArrayDeque<>();
+        Deque<Frame> frames = new ArrayDeque<>();
+        Set<AliasRecord> cyclic = Collections.newSetFromMap(new IdentityHashMap<>());
+        int index = 0;
+
+        for (AliasRecord root : records) {
+            if (states.containsKey(root)) {
+                continue;
+            }
+
+            states.put(root, new int[] {index, index++, 1});
+            stack.push(root);
+            frames.push(new Frame(root));
+            while (!frames.isEmpty()) {
+                Frame frame = frames.peek();
+                if (frame.next < frame.successors.size()) {
+                    Object successor = frame.successors.get(frame.next++);
+                    int[] state = states.get(successor);
+                    if (state == null) {
+                        states.put(successor, new int[] {index, index++, 1});
+                        stack.push(successor);
+                        frames.push(new Frame(successor));
+                    } else if (state[2] == 1) {
+                        int[] current = states.get(frame.vertex);
+                        current[1] = Math.min(current[1], state[0]);
+                    }
+                    continue;
+                }
+
+                frames.pop();
+                int[] state = states.get(frame.vertex);
+                if (state[1] == state[0]) {
+                    List<Object> component = new ArrayList<>();
+                    Object member;
+                    do {
+                        member = stack.pop();
+                        states.get(member)[2] = 0;
+                        component.add(member);
+                    } while (member != frame.vertex);
+
+                    if (component.size() > 1 || frame.successors.contains(frame.vertex)) {
+                        for (Object vertex : component) {
+                            if (vertex instanceof AliasRecord record) {
+                                cyclic.add(record);
+                            }
+                        }
+                    }
+                }
+                if (!frames.isEmpty()) {
+                    int[] parent = states.get(frames.peek().vertex);
+                    parent[1] = Math.min(parent[1], state[1]);
+                }
+            }
+        }
+        return cyclic;
+    }
+
+    /**
+     * Adds the vertices {@code vertex} leads to. A record leads to the records whose tokens prefix its
+     * command and to the node its command ends at; a node leads to the records and nodes below it. Each
+     * step of a macro is a command of its own, and only the last one can be extended by arguments. Steps
+     * after the first are resolved once their placeholders are rendered, so a placeholder token there
+     * may continue into any alias below the nodes reached so far; so may a pattern alias's reference to
+     * one of its slots. A command token can also continue along every slot it may fit, so the walk
+     * follows a set of nodes.
+     */
+    private void successors(Object vertex, List<Object> out) {
+        if (vertex instanceof AliasRecord record) {
+            List<String> tokens = record.commandTokens();
+            int start = 0;
+            while (start <= tokens.size()) {
+                int end = start;
+                while (end < tokens.size() && !tokens.get(end).equals(MacroScript.SEPARATOR)) {
+                    end++;
+                }
+
+                List<Node> nodes = List.of(root);
+                boolean wildcard = false;
+                for (int i = start; i < end && !nodes.isEmpty(); i++) {
+                    String token = tokens.get(i);
+                    if ((start > 0 && isPlaceholder(token)) || (record.isPattern() && token.indexOf('{') >= 0)) {
+                        wildcard = true;
+                        break;
+                    }
+                    List<Node> next = new ArrayList<>(1);
+                    for (Node node : nodes) {
+                        Node child = node.child(token, 0, token.length());
+                        if (child != null) {
+                            next.add(child);
+                        }
+                        if (node.parameters != null) {
+                            for (ParameterType type : ParameterType.VALUES) {
+                                Node slot = node.parameters[type.ordinal()];
+                                if (slot != null && type.mayMatch(token)) {
+                                    next.add(slot);
+                                }
+                            }
+                        }
+                    }
+                    for (Node node : next) {
+                        if (node.record != null) {
+                            out.add(node.record);
+                        }
+                    }
+                    nodes = next;
+                }
+                if (wildcard || end == tokens.size()) {
+                    for (Node node : nodes) {
+                        if (node.hasChildren()) {
+                            out.add(node);
+                        }
+                    }
+                }
+                start = end + 1;
+            }
+            return;
+        }
+
+        Node node = (Node) vertex;
+        for (Node child : node.children) {
+            addChild(child, out);
+        }
+        if (node.parameters != null) {
+            for (Node child : node.parameters) {
+                addChild(child, out);
+            }
+        }
+    }
+
+    private static void addChild(Node child, List<Object> out) {
+        if (child == null) {
+            return;
+        }
+        if (child.record != null) {
+            out.add(child.record);
+        }
+        if (child.hasChildren()) {
+            out.add(child);
+        }
+    }
+
+    private static boolean isPlaceholder(String token) {
+        return token.indexOf('$') >= 0 || token.indexOf('%') >= 0;
+    }
+
+    private static Node with(Node node, AliasRecord record, int depth) {
+        Node copy = node == null ? new Node() : node.copy();
+        if (depth == record.aliasLength()) {
+            copy.record = record;
+            return copy;
+        }
+
+        String key = record.foldedToken(depth);
+        copy.putInPlace(key, with(copy.next(key), record, depth + 1));
+        return copy;
+    }
+
+    /**
+     * Returns the replacement for {@code node}, {@code node} itself when nothing changed, or null when the
+     * node no longer holds anything.
+     */
+    private static Node without(Node node, List<String> aliasTokens, int depth) {
+        if (depth == aliasTokens.size()) {
+            if (node.record == null) {
+                return node;
+            }
+            if (!node.hasChildren()) {
+                return null;
+            }
+            Node copy = node.copy();
+            copy.record = null;
+            return copy;
+        }
+
+        String key = TokenDictionary.fold(aliasTokens.get(depth));
+        Node child = node.next(key);
+        if (child == null) {
+            return node;
+        }
+
+        Node updatedChild = without(child, aliasTokens, depth + 1);
+        if (updatedChild == child) {
+            return node;
+        }
+
+        Node copy = updatedChild == null ? node.copyWithout(key) : node.copy();
+        if (updatedChild != null) {
+            copy.putInPlace(key, updatedChild);
+        }
+        if (!copy.hasChildren() && copy.record == null) {
+            return null;
+        }
+        return copy;
+    }
+
+    /**
+     * Depth-first search frame of {@link #cyclicRecords(Collection)}.
+     */
+    private final class Frame {
+        private final Object vertex;
+        private final List<Object> successors = new ArrayList<>();
+        private int next;
+
+        private Frame(Object vertex) {
+            this.vertex = vertex;
+            successors(vertex, successors);
+        }
+    }
+
+    /**
+     * Trie node. Only mutated while it is being built or copied, never after it becomes reachable from a
+     * published trie. {@code count} counts the literal children; slot children are kept by type in
+     * {@code parameters}, which is null at nodes without slots.
+     */
+    private static final class Node {
+        private String[] keys;
+        private Node[] children;
+        private int count;
+        private Node[] parameters;
+        private AliasRecord record;
+
+        private Node() {
+            this(new String[2], new Node[2], 0, null, null);
+        }
+
+        private Node(String[] keys, Node[] children, int count, Node[] parameters, AliasRecord record) {
+            this.keys = keys;
+            this.children = children;
+            this.count = count;
+            this.parameters = parameters;
+            this.record = record;
+        }
+
+        private boolean hasChildren() {
+            return count > 0 || parameters != null;
+        }
+
+        private Node parameter(ParameterType type) {
+            return parameters == null ? null : parameters[type.ordinal()];
+        }
+
+        /**
+         * The child under folded key {@code key}, which may be the key of a slot type.
+         */
+        private Node next(String key) {
+            ParameterType slot = ParameterType.ofKey(key);
+            return slot != null ? parameter(slot) : child(key, 0, key.length());
+        }
+
+        private Node child(CharSequence text, int start, int end) {
+            if (count == 0) {
+                return null;
+            }
+
+            int mask = keys.length - 1;
+            int slot = spread(CommandTokens.foldedHash(text, start, end)) & mask;
+            String key;
+            while ((key = keys[slot]) != null) {
+                if (CommandTokens.regionEquals(text, start, end, key)) {
+                    return children[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        private void putInPlace(String key, Node child) {
+            ParameterType type = ParameterType.ofKey(key);
+            if (type != null) {
+                if (parameters == null) {
+                    parameters = new Node[ParameterType.VALUES.length];
+                }
+                parameters[type.ordinal()] = child;
+                return;
+            }
+            if ((count + 1) * 2 > keys.length) {
+                rehash(keys.length * 2);
+            }
+
+            int mask = keys.length - 1;
+            int slot = spread(CommandTokens.foldedHash(key, 0, key.length())) & mask;
+            while (keys[slot] != null) {
+                if (keys[slot].equals(key)) {
+                    children[slot] = child;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            children[slot] = child;
+            count++;
+        }
+
+        private Node copy() {
+            return new Node(keys.clone(), children.clone(), count, parameters == null ? null : parameters.clone(), record);
+        }
+
+        private Node copyWithout(String key) {
+            ParameterType slot = ParameterType.ofKey(key);
+            if (slot != null) {
+                Node copy = copy();
+                copy.parameters[slot.ordinal()] = null;
+                if (Arrays.stream(copy.parameters).allMatch(Objects::isNull)) {
+                    copy.parameters = null;
+                }
+                return copy;
+            }
+            Node copy = new Node(new String[keys.length], new Node[keys.length], 0, parameters == null ? null : parameters.clone(), record);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null && !keys[i].equals(key)) {
+                    copy.putInPlace(keys[i], children[i]);
+                }
+            }
+            return copy;
+        }
+
+        private void rehash(int capacity) {
+            String[] oldKeys = keys;
+            Node[] oldChildren = children;
+            keys = new String[capacity];
+            children = new Node[capacity];
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    putInPlace(oldKeys[i], oldChildren[i]);
+                }
+            }
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.levyxx.minecraftalias;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lazily composed effective alias tables. Players without aliases of their own share one view per
+ * combination of groups, which is just the global table when they are in none; only players with
+ * private aliases get a view of their own. Views are composed as overlays of the persistent trie, so
+ * even those share every untouched node with the global index.
+ * <p>
+ * A cached view remembers the snapshots it was composed from and is recomposed when any of them has
+ * been replaced or the player's groups changed, so permission changes take effect with the next
+ * command. Player views are evicted when the player quits.
+ * <p>
+ * A layer alias that would loop with the aliases below it is left out of the view silently; the manager
+ * warns about those once, when the layer is loaded.
+ */
+final class AliasViews {
+    private final Map<Long, View> groupViews = new ConcurrentHashMap<>();
+    private final Map<UUID, View> playerViews = new ConcurrentHashMap<>();
+    /**
+     * The table {@code sender}'s commands resolve against.
+     */
+    AliasTable viewFor(CommandSender sender, AliasTable global, ScopeLayers layers) {
+        if (layers.isEmpty() || !(sender instanceof Player player)) {
+            return global;
+        }
+
+        long groups = layers.groupMask(player);
+        AliasTable own = layers.player(player.getUniqueId());
+        if (own == null) {
+            return groups == 0L ? global : groupView(global, layers, groups);
+        }
+
+        View view = playerViews.get(player.getUniqueId());
+        if (view != null && view.isFor(global, layers.groupsVersion(), groups, own)) {
+            return view.table();
+        }
+        AliasTable base = groups == 0L ? global : groupView(global, layers, groups);
+        AliasTable table = base.overlay(own.records(), record -> { });
+        playerViews.put(player.getUniqueId(), new View(global, layers.groupsVersion(), groups, own, table));
+        return table;
+    }
+
+    void evict(UUID playerId) {
+        playerViews.remove(playerId);
+    }
+
+    /**
+     * Drops every cached view; they are composed again on demand.
+     */
+    void clear() {
+        groupViews.clear();
+        playerViews.clear();
+    }
+
+    private AliasTable groupView(AliasTable global, ScopeLayers layers, long groups) {
+        View view = groupViews.get(groups);
+        if (view != null && view.isFor(global, layers.groupsVersion(), groups, null)) {
+            return view.table();
+        }
+        AliasTable table = layers.composeGroups(global, groups);
+        groupViews.put(groups, new View(global, layers.groupsVersion(), groups, null, table));
+        return table;
+    }
+
+    private record View(AliasTable global, Object groupsVersion, long groups, AliasTable own, AliasTable table) {
+        boolean isFor(AliasTable global, Object groupsVersion, long groups, AliasTable own) {
+            return this.global == global && this.groupsVersion == groupsVersion && this.groups == groups && this.own == own;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.levyxx.minecraftalias;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Whitespace tokenizer that records token boundaries over the original text instead of copying tokens.
+ * Comparisons fold case in place, so matching a command against the alias index allocates nothing; a
+ * String is only built for the command that is finally dispatched.
+ * <p>
+ * Instances are mutable and reusable. {@link #scratch(CharSequence, int)} hands out one per thread.
+ */
+public final class CommandTokens {
+    private static final ThreadLocal<CommandTokens> SCRATCH = ThreadLocal.withInitial(CommandTokens::new);
+
+    private CharSequence source = "";
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private int size;
+
+    /**
+     * Tokenizes {@code source} from {@code from} into this thread's shared instance. The result is only
+     * valid until the next call on the same thread.
+     */
+    public static CommandTokens scratch(CharSequence source, int from) {
+        return SCRATCH.get().tokenize(source, from);
+    }
+
+    public static CommandTokens of(CharSequence source) {
+        return new CommandTokens().tokenize(source, 0);
+    }
+
+    public CommandTokens tokenize(CharSequence source, int from) {
+        this.source = source;
+        this.size = 0;
+        int length = source.length();
+        int i = from;
+        while (i < length) {
+            while (i < length && isWhitespace(source.charAt(i))) {
+                i++;
+            }
+            if (i == length) {
+                break;
+            }
+
+            int start = i;
+            while (i < length && !isWhitespace(source.charAt(i))) {
+                i++;
+            }
+            add(start, i);
+        }
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public CharSequence source() {
+        return source;
+    }
+
+    public int start(int index) {
+        return starts[index];
+    }
+
+    public int end(int index) {
+        return ends[index];
+    }
+
+    /**
+     * Case-insensitive comparison of token {@code index} with {@code other}, without copying either.
+     */
+    public boolean tokenEquals(int index, String other) {
+        return regionEquals(source, starts[index], ends[index], other);
+    }
+
+    public String token(int index) {
+        return source.subSequence(starts[index], ends[index]).toString();
+    }
+
+    /**
+     * Appends tokens {@code from} (inclusive) to {@code to} (exclusive) separated by single spaces.
+     */
+    public void appendRange(StringBuilder builder, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                builder.append(' ');
+            }
+            builder.append(source, starts[i], ends[i]);
+        }
+    }
+
+    public String join(int from, int to) {
+        StringBuilder builder = new StringBuilder();
+        appendRange(builder, from, to);
+        return builder.toString();
+    }
+
+    public List<String> toList() {
+        List<String> tokens = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tokens.add(token(i));
+        }
+        return tokens;
+    }
+
+    /**
+     * Trims {@code value} and collapses every whitespace run to a single space.
+     */
+    public static String collapseWhitespace(String value) {
+        if (value == null) {
+            return "";
+        }
+
+        StringBuilder builder = new StringBuilder(value.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (isWhitespace(c)) {
+                pendingSpace = builder.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    builder.append(' ');
+                    pendingSpace = false;
+                }
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Folds {@code c} the same way {@link String#equalsIgnoreCase(String)} compares characters.
+     */
+    static char fold(char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    static int foldedHash(CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + fold(text.charAt(i));
+        }
+        return hash;
+    }
+
+    static boolean regionEquals(CharSequence text, int start, int end, String other) {
+        if (end - start != other.length()) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (fold(text.charAt(i)) != fold(other.charAt(i - start))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void add(int start, int end) {
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+    }
+}
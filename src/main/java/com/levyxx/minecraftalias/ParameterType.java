@@ -0,0 +1,192 @@
+package com.levyxx.minecraftalias;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Type of a parameter slot in a pattern alias. A slot takes the place of an alias token after the first
+ * and is written {@code {name}} or {@code {name:type}}, the type defaulting to {@code word}; the command
+ * refers to the captured argument as {@code {name}}. For example {@code tpa {target:player}} with the
+ * command {@code tp %player% {target}}.
+ * <p>
+ * When a command is matched, a literal alias token is tried before any slot at the same position, then
+ * the slots in declaration order, so the most specific alias wins.
+ */
+enum ParameterType {
+    /**
+     * An integer such as {@code 5} or {@code -12}.
+     */
+    INT("int"),
+    /**
+     * The name of a player who is online, in any case.
+     */
+    PLAYER("player"),
+    /**
+     * Any single token.
+     */
+    WORD("word"),
+    /**
+     * One or more tokens up to the end of the command. Only allowed as the last alias token.
+     */
+    REST("rest");
+
+    static final ParameterType[] VALUES = values();
+
+    private final String name;
+    private final String key;
+
+    ParameterType(String name) {
+        this.name = name;
+        this.key = "{:" + name + "}";
+    }
+
+    /**
+     * Folded form of every slot of this type, so aliases that only differ in the names of their slots
+     * are the same alias. It is not itself a valid slot.
+     */
+    String key() {
+        return key;
+    }
+
+    /**
+     * The type of slot {@code token}, or null when the token is not a slot.
+     */
+    static ParameterType of(String token) {
+        int length = token.length();
+        if (length < 3 || token.charAt(0) != '{' || token.charAt(length - 1) != '}') {
+            return null;
+        }
+        int nameEnd = nameEnd(token);
+        for (int i = 1; i < nameEnd; i++) {
+            if (!isNameChar(token.charAt(i))) {
+                return null;
+            }
+        }
+        if (nameEnd == 1) {
+            return null;
+        }
+        if (nameEnd == length - 1) {
+            return WORD;
+        }
+        for (ParameterType type : VALUES) {
+            if (type.name.length() == length - nameEnd - 2 && token.regionMatches(true, nameEnd + 1, type.name, 0, type.name.length())) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The name of slot {@code token}, in lower case.
+     */
+    static String nameOf(String token) {
+        return token.substring(1, nameEnd(token)).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The type whose {@link #key()} is {@code key}, or null.
+     */
+    static ParameterType ofKey(String key) {
+        if (key.length() < 3 || key.charAt(0) != '{' || key.charAt(1) != ':') {
+            return null;
+        }
+        for (ParameterType type : VALUES) {
+            if (type.key.equals(key)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether the token {@code text[start, end)} fits this slot for {@code sender}. Player slots look the
+     * name up on the sender's server, so they never match without a sender.
+     */
+    boolean matches(CharSequence text, int start, int end, CommandSender sender) {
+        return switch (this) {
+            case INT -> isInteger(text, start, end);
+            case PLAYER -> sender != null && sender.getServer().getPlayerExact(text.subSequence(start, end).toString()) != null;
+            case WORD, REST -> true;
+        };
+    }
+
+    /**
+     * Whether {@code token} of an alias's command could fit this slot, not knowing who is online.
+     */
+    boolean mayMatch(String token) {
+        return this != INT || isInteger(token, 0, token.length());
+    }
+
+    /**
+     * {@code command} with every {@code {name}} of a slot in {@code aliasTokens} replaced by the argument
+     * the slot captured from {@code input}, which starts with the matched alias. Names are compared
+     * ignoring case; braces that do not name a slot are left as they are.
+     */
+    static String substitute(String command, List<String> aliasTokens, List<String> input) {
+        int open = command.indexOf('{');
+        if (open < 0) {
+            return command;
+        }
+
+        StringBuilder builder = new StringBuilder(command.length() + 16);
+        int copied = 0;
+        while (open >= 0) {
+            int close = command.indexOf('}', open + 1);
+            if (close < 0) {
+                break;
+            }
+            int slot = slotNamed(command, open + 1, close, aliasTokens);
+            if (slot < 0) {
+                open = command.indexOf('{', open + 1);
+                continue;
+            }
+
+            builder.append(command, copied, open);
+            if (of(aliasTokens.get(slot)) == REST) {
+                builder.append(String.join(" ", input.subList(slot, input.size())));
+            } else {
+                builder.append(input.get(slot));
+            }
+            copied = close + 1;
+            open = command.indexOf('{', copied);
+        }
+        return builder.append(command, copied, command.length()).toString();
+    }
+
+    private static int slotNamed(String text, int start, int end, List<String> aliasTokens) {
+        for (int i = 1; i < aliasTokens.size(); i++) {
+            String token = aliasTokens.get(i);
+            if (nameEnd(token) - 1 == end - start && of(token) != null && token.regionMatches(true, 1, text, start, end - start)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int nameEnd(String token) {
+        int colon = token.indexOf(':');
+        return colon < 0 ? token.length() - 1 : colon;
+    }
+
+    private static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static boolean isInteger(CharSequence text, int start, int end) {
+        int digits = start < end && text.charAt(start) == '-' ? start + 1 : start;
+        if (digits == end || end - digits > 10) {
+            return false;
+        }
+        long value = 0L;
+        for (int i = digits; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value <= (digits > start ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,104 @@
+package com.levyxx.minecraftalias;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Record of how one command was resolved: the alias it matched, every hop of the alias chain and the
+ * rendering of placeholders, each with the time it took. Resolution only builds one when asked to, so
+ * commands that are not traced pay nothing but a null check per stage.
+ * <p>
+ * A stage's time runs from the end of the previous stage, so it includes the cost of tracing it.
+ */
+public final class ResolutionTrace {
+    private final String input;
+    private final long started = System.nanoTime();
+    private final List<Step> steps = new ArrayList<>();
+    private long mark = started;
+    private String result;
+
+    ResolutionTrace(String input) {
+        this.input = input;
+    }
+
+    /**
+     * Ends the current stage.
+     */
+    void step(Stage stage, String detail) {
+        long now = System.nanoTime();
+        steps.add(new Step(stage, detail, now - mark));
+        mark = now;
+    }
+
+    void result(String command) {
+        result = command;
+    }
+
+    public String input() {
+        return input;
+    }
+
+    public List<Step> steps() {
+        return Collections.unmodifiableList(steps);
+    }
+
+    /**
+     * The command the input resolved to, or null when it did not resolve.
+     */
+    public String result() {
+        return result;
+    }
+
+    /**
+     * Time from the start of resolution to the end of the last stage.
+     */
+    public long totalNanos() {
+        return mark - started;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("/").append(input);
+        for (Step step : steps) {
+            builder.append(" | ").append(step.stage().name().toLowerCase(Locale.ROOT));
+            if (!step.detail().isEmpty()) {
+                builder.append(' ').append(step.detail());
+            }
+            builder.append(" (").append(step.nanos()).append(" ns)");
+        }
+        return builder.append(" | total ").append(totalNanos()).append(" ns").toString();
+    }
+
+    public enum Stage {
+        /**
+         * The aliases available to the sender were looked up or composed.
+         */
+        VIEW,
+        /**
+         * The longest alias at the start of the input was looked up; the detail names it and the
+         * arguments left over, or is empty when nothing matched.
+         */
+        MATCH,
+        /**
+         * One hop of the alias chain: an alias and the command it was rewritten to.
+         */
+        HOP,
+        /**
+         * The chain depends on the typed arguments, which could extend a match or fill a parameter slot,
+         * so it was resolved with them.
+         */
+        ARGUMENTS,
+        /**
+         * Placeholders and arguments were rendered into the final command.
+         */
+        RENDER,
+        /**
+         * Resolution stopped with an error.
+         */
+        FAILED
+    }
+
+    public record Step(Stage stage, String detail, long nanos) { }
+}
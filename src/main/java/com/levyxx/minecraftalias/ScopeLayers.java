@@ -0,0 +1,256 @@
+package com.levyxx.minecraftalias;
+
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+/**
+ * Immutable set of the group and player alias layers, each an independently indexed {@link AliasTable}.
+ * Like the global table it is replaced as a whole on every change. Groups are kept sorted by name, which
+ * is also their priority: when two groups define the same alias, the one whose name sorts first wins.
+ */
+final class ScopeLayers {
+    /**
+     * Membership is tracked as a bit mask, so at most this many groups take part in resolution.
+     */
+    static final int MAX_GROUPS = Long.SIZE;
+    static final ScopeLayers EMPTY = new ScopeLayers(new String[0], new AliasTable[0], Map.of());
+
+    private final String[] groupNames;
+    private final AliasTable[] groupTables;
+    private final String[] groupPermissions;
+    private final Map<UUID, AliasTable> players;
+    /**
+     * Roots of every layer, built on first use: most snapshots are replaced before they see a command.
+     */
+    private volatile RootIndex roots;
+
+    private ScopeLayers(String[] groupNames, AliasTable[] groupTables, Map<UUID, AliasTable> players) {
+        this.groupNames = groupNames;
+        this.groupTables = groupTables;
+        this.groupPermissions = new String[groupNames.length];
+        for (int i = 0; i < groupNames.length; i++) {
+            groupPermissions[i] = AliasScope.GROUP_PERMISSION_PREFIX + groupNames[i];
+        }
+        this.players = players;
+    }
+
+    boolean isEmpty() {
+        return groupNames.length == 0 && players.isEmpty();
+    }
+
+    /**
+     * The layer of {@code scope}, or null when it holds no aliases. Not defined for the global scope.
+     */
+    AliasTable layer(AliasScope scope) {
+        return switch (scope.kind()) {
+            case GROUP -> {
+                int index = Arrays.binarySearch(groupNames, scope.name());
+                yield index >= 0 ? groupTables[index] : null;
+            }
+            case PLAYER -> players.get(scope.playerId());
+            case GLOBAL -> throw new IllegalArgumentException("The global scope has no layer");
+        };
+    }
+
+    /**
+     * Every group and player scope that has a layer.
+     */
+    List<AliasScope> scopes() {
+        List<AliasScope> scopes = new ArrayList<>(groupNames.length + players.size());
+        for (String name : groupNames) {
+            scopes.add(new AliasScope(AliasScope.Kind.GROUP, name));
+        }
+        for (UUID playerId : players.keySet()) {
+            scopes.add(AliasScope.player(playerId));
+        }
+        return scopes;
+    }
+
+    AliasTable player(UUID playerId) {
+        return players.get(playerId);
+    }
+
+    /**
+     * Returns a copy with the layer of {@code scope} replaced by {@code layer}; an empty layer is dropped.
+     */
+    ScopeLayers with(AliasScope scope, AliasTable layer) {
+        boolean empty = layer.size() == 0;
+        if (scope.kind() == AliasScope.Kind.PLAYER) {
+            Map<UUID, AliasTable> updated = new HashMap<>(players);
+            if (empty) {
+                updated.remove(scope.playerId());
+            } else {
+                updated.put(scope.playerId(), layer);
+            }
+            return new ScopeLayers(groupNames, groupTables, Map.copyOf(updated));
+        }
+
+        int index = Arrays.binarySearch(groupNames, scope.name());
+        if (index >= 0 && !empty) {
+            AliasTable[] tables = groupTables.clone();
+            tables[index] = layer;
+            return new ScopeLayers(groupNames, tables, players);
+        }
+        if (index >= 0) {
+            String[] names = new String[groupNames.length - 1];
+            AliasTable[] tables = new AliasTable[groupTables.length - 1];
+            System.arraycopy(groupNames, 0, names, 0, index);
+            System.arraycopy(groupNames, index + 1, names, index, names.length - index);
+            System.arraycopy(groupTables, 0, tables, 0, index);
+            System.arraycopy(groupTables, index + 1, tables, index, tables.length - index);
+            return new ScopeLayers(names, tables, players);
+        }
+        if (empty) {
+            return this;
+        }
+
+        int insertion = -index - 1;
+        String[] names = new String[groupNames.length + 1];
+        AliasTable[] tables = new AliasTable[groupTables.length + 1];
+        System.arraycopy(groupNames, 0, names, 0, insertion);
+        System.arraycopy(groupTables, 0, tables, 0, insertion);
+        names[insertion] = scope.name();
+        tables[insertion] = layer;
+        System.arraycopy(groupNames, insertion, names, insertion + 1, groupNames.length - insertion);
+        System.arraycopy(groupTables, insertion, tables, insertion + 1, groupTables.length - insertion);
+        return new ScopeLayers(names, tables, players);
+    }
+
+    /**
+     * Whether the first word of {@code text[from..]} is the root of an alias in any layer. Needs no
+     * permission checks, so a command can be ruled out before the sender's view is composed.
+     */
+    boolean hasRoot(CharSequence text, int from) {
+        if (isEmpty()) {
+            return false;
+        }
+        int length = text.length();
+        int start = from;
+        while (start < length && CommandTokens.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        int end = start;
+        while (end < length && !CommandTokens.isWhitespace(text.charAt(end))) {
+            end++;
+        }
+        if (start == end) {
+            return false;
+        }
+        RootIndex index = roots;
+        if (index == null) {
+            index = RootIndex.of(this);
+            roots = index;
+        }
+        return index.contains(text, start, end);
+    }
+
+    /**
+     * Bit {@code i} is set when {@code player} belongs to the {@code i}-th group. Costs one permission
+     * check per group and does not allocate.
+     */
+    long groupMask(Player player) {
+        long mask = 0L;
+        int count = Math.min(groupNames.length, MAX_GROUPS);
+        for (int i = 0; i < count; i++) {
+            if (player.hasPermission(groupPermissions[i])) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Identity of the group layers; unchanged when only player layers change.
+     */
+    Object groupsVersion() {
+        return groupTables;
+    }
+
+    /**
+     * {@code base} with the groups in {@code mask} laid over it, highest priority last. Aliases that
+     * would loop with those below them are left out.
+     */
+    AliasTable composeGroups(AliasTable base, long mask) {
+        AliasTable view = base;
+        for (int i = Math.min(groupNames.length, MAX_GROUPS) - 1; i >= 0; i--) {
+            if ((mask & (1L << i)) != 0) {
+                view = view.overlay(groupTables[i].records(), record -> { });
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Returns a copy with {@code mapper} applied to every layer.
+     */
+    ScopeLayers mapLayers(UnaryOperator<AliasTable> mapper) {
+        AliasTable[] tables = new AliasTable[groupTables.length];
+        for (int i = 0; i < tables.length; i++) {
+            tables[i] = mapper.apply(groupTables[i]);
+        }
+        Map<UUID, AliasTable> mapped = new HashMap<>();
+        players.forEach((playerId, layer) -> mapped.put(playerId, mapper.apply(layer)));
+        return new ScopeLayers(groupNames, tables, Map.copyOf(mapped));
+    }
+
+    int groupCount() {
+        return groupNames.length;
+    }
+
+    /**
+     * Open-addressed set of the folded roots of all layers, probed with a region of the typed command so
+     * the lookup does not allocate.
+     */
+    private static final class RootIndex {
+        private final String[] slots;
+        private final int mask;
+
+        private RootIndex(Set<String> roots) {
+            int capacity = Integer.highestOneBit(Math.max(roots.size(), 1) * 2 - 1) << 1;
+            this.slots = new String[capacity];
+            this.mask = capacity - 1;
+            for (String root : roots) {
+                int slot = slot(CommandTokens.foldedHash(root, 0, root.length()));
+                while (slots[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = root;
+            }
+        }
+
+        static RootIndex of(ScopeLayers layers) {
+            Set<String> roots = new HashSet<>();
+            for (AliasTable table : layers.groupTables) {
+                roots.addAll(table.roots());
+            }
+            for (AliasTable table : layers.players.values()) {
+                roots.addAll(table.roots());
+            }
+            return new RootIndex(roots);
+        }
+
+        boolean contains(CharSequence text, int start, int end) {
+            int slot = slot(CommandTokens.foldedHash(text, start, end));
+            for (String root = slots[slot]; root != null; root = slots[slot]) {
+                if (CommandTokens.regionEquals(text, start, end, root)) {
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return false;
+        }
+
+        private int slot(int hash) {
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+    }
+}
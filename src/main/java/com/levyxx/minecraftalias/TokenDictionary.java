@@ -0,0 +1,261 @@
+package com.levyxx.minecraftalias;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Append-only dictionary that gives every distinct token, and every distinct case-folded alias, a small
+ * int id. Records store ids instead of strings, so a token repeated across thousands of aliases
+ * ({@code warp}, {@code kit}, world names) is held once.
+ * <p>
+ * Both tables are open-addressing arrays of ids; token sequences are packed back to back in one int
+ * array. Inserts take the lock. Lookups of existing entries do not, so records can be built on several
+ * threads at once: an entry is published through a volatile write made after everything it refers to is
+ * written, and a lookup that does not yet see it misses and retries under the lock. Entries are never
+ * removed, so the dictionary grows with the distinct tokens and aliases seen since the manager was
+ * created.
+ */
+final class TokenDictionary {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final Object lock = new Object();
+    private volatile Tokens tokens = new Tokens(INITIAL_CAPACITY);
+    private volatile Keys keys = new Keys(INITIAL_CAPACITY);
+
+    int intern(String token) {
+        Tokens current = tokens;
+        int id = current.find(token);
+        if (id >= 0) {
+            return id;
+        }
+
+        synchronized (lock) {
+            current = tokens;
+            id = current.find(token);
+            if (id >= 0) {
+                return id;
+            }
+
+            String folded = fold(token);
+            int foldedId = folded.equals(token) ? -1 : intern(folded);
+            current = tokens;
+            if (current.size == current.entries.length()) {
+                current = current.grow();
+            }
+            id = current.add(token, foldedId);
+            tokens = current;
+            return id;
+        }
+    }
+
+    String token(int id) {
+        return tokens.entries.get(id).token();
+    }
+
+    /**
+     * Id of the case-folded form of token {@code id}, which is {@code id} itself for a folded token.
+     */
+    int folded(int id) {
+        return tokens.entries.get(id).folded();
+    }
+
+    /**
+     * Id shared by every sequence that folds to the same tokens as {@code ids[from, to)}.
+     */
+    int key(int[] ids, int from, int to) {
+        Tokens names = tokens;
+        int[] folded = new int[to - from];
+        for (int i = from; i < to; i++) {
+            folded[i - from] = names.entries.get(ids[i]).folded();
+        }
+
+        Keys current = keys;
+        int key = current.find(folded);
+        if (key >= 0) {
+            return key;
+        }
+
+        synchronized (lock) {
+            current = keys;
+            key = current.find(folded);
+            if (key >= 0) {
+                return key;
+            }
+            if (current.size == current.slots.length / 2 || current.used + folded.length > current.pool.length) {
+                current = current.grow(folded.length);
+            }
+            key = current.add(folded);
+            keys = current;
+            return key;
+        }
+    }
+
+    /**
+     * Case-folded form of {@code token}. A parameter slot folds to the key of its type, whatever its name.
+     */
+    static String fold(String token) {
+        ParameterType slot = ParameterType.of(token);
+        if (slot != null) {
+            return slot.key();
+        }
+        char[] folded = null;
+        for (int i = 0; i < token.length(); i++) {
+            char c = CommandTokens.fold(token.charAt(i));
+            if (c != token.charAt(i) && folded == null) {
+                folded = token.toCharArray();
+            }
+            if (folded != null) {
+                folded[i] = c;
+            }
+        }
+        return folded == null ? token : new String(folded);
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Token entries by id and a hash index over them. An entry is set before its id is indexed and never
+     * changes; a lock-free reader that finds an indexed id whose entry it does not see yet misses and
+     * retries under the lock.
+     */
+    private static final class Tokens {
+        private final AtomicReferenceArray<Entry> entries;
+        private final int[] slots;
+        private int size;
+
+        private Tokens(int capacity) {
+            this.entries = new AtomicReferenceArray<>(capacity / 2);
+            this.slots = new int[capacity];
+        }
+
+        private int find(String token) {
+            int mask = slots.length - 1;
+            for (int slot = spread(token.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+                int id = slots[slot] - 1;
+                if (id < 0) {
+                    return -1;
+                }
+                Entry present = entries.get(id);
+                if (present != null && present.token().equals(token)) {
+                    return id;
+                }
+            }
+        }
+
+        private int add(String token, int foldedId) {
+            int id = size++;
+            entries.set(id, new Entry(token, foldedId < 0 ? id : foldedId));
+            index(id);
+            return id;
+        }
+
+        private void index(int id) {
+            int mask = slots.length - 1;
+            int slot = spread(entries.get(id).token().hashCode()) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+
+        private Tokens grow() {
+            Tokens grown = new Tokens(slots.length * 2);
+            for (int id = 0; id < size; id++) {
+                grown.entries.set(id, entries.get(id));
+                grown.index(id);
+            }
+            grown.size = size;
+            return grown;
+        }
+    }
+
+    /**
+     * A token and the id of its case-folded form.
+     */
+    private record Entry(String token, int folded) { }
+
+    /**
+     * Folded token sequences packed into {@link #pool}, with their end offsets by key and a hash index.
+     * A key's end offset is set after its sequence is written and before the key is indexed, and stays
+     * zero until then; a lock-free reader that does not see it yet misses and retries under the lock.
+     */
+    private static final class Keys {
+        private final int[] pool;
+        private final AtomicIntegerArray ends;
+        private final int[] slots;
+        private int used;
+        private int size;
+
+        private Keys(int capacity) {
+            this(capacity, capacity * 2);
+        }
+
+        private Keys(int capacity, int poolCapacity) {
+            this.pool = new int[poolCapacity];
+            this.ends = new AtomicIntegerArray(capacity / 2 + 1);
+            this.slots = new int[capacity];
+        }
+
+        private int find(int[] sequence) {
+            int mask = slots.length - 1;
+            for (int slot = spread(Arrays.hashCode(sequence)) & mask; ; slot = (slot + 1) & mask) {
+                int key = slots[slot] - 1;
+                if (key < 0) {
+                    return -1;
+                }
+                int end = ends.get(key + 1);
+                int start = ends.get(key);
+                if (end != 0 && end - start == sequence.length && Arrays.equals(pool, start, end, sequence, 0, sequence.length)) {
+                    return key;
+                }
+            }
+        }
+
+        private int add(int[] sequence) {
+            int key = size;
+            System.arraycopy(sequence, 0, pool, used, sequence.length);
+            used += sequence.length;
+            ends.set(key + 1, used);
+            size++;
+            index(key, Arrays.hashCode(sequence));
+            return key;
+        }
+
+        private void index(int key, int hash) {
+            int mask = slots.length - 1;
+            int slot = spread(hash) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = key + 1;
+        }
+
+        private Keys grow(int extra) {
+            int capacity = size == slots.length / 2 ? slots.length * 2 : slots.length;
+            int poolCapacity = Math.max(pool.length, Integer.highestOneBit(used + extra) << 1);
+            Keys grown = new Keys(capacity, poolCapacity);
+            System.arraycopy(pool, 0, grown.pool, 0, used);
+            for (int key = 1; key <= size; key++) {
+                grown.ends.set(key, ends.get(key));
+            }
+            grown.used = used;
+            grown.size = size;
+            for (int key = 0; key < size; key++) {
+                grown.index(key, hash(key));
+            }
+            return grown;
+        }
+
+        private int hash(int key) {
+            int hash = 1;
+            for (int i = ends.get(key); i < ends.get(key + 1); i++) {
+                hash = 31 * hash + pool[i];
+            }
+            return hash;
+        }
+    }
+}
@@ -1,29 +1,59 @@
 package com.levyxx.minecraftalias.commands;
 
 import com.levyxx.minecraftalias.AliasManager;
+import com.levyxx.minecraftalias.AliasManager.AddResult;
 import com.levyxx.minecraftalias.AliasManager.AliasRecord;
+import com.levyxx.minecraftalias.AliasManager.ImportResult;
+import com.levyxx.minecraftalias.AliasManager.ReloadResult;
+import com.levyxx.minecraftalias.AliasScope;
+import com.levyxx.minecraftalias.CommandTokens;
+import com.levyxx.minecraftalias.ResolutionTrace;
+import com.levyxx.minecraftalias.ResolutionTrace.Stage;
+import com.levyxx.minecraftalias.ResolutionTrace.Step;
+import com.levyxx.minecraftalias.limits.AliasLimit;
+import com.levyxx.minecraftalias.metrics.AliasMetrics;
+import com.levyxx.minecraftalias.metrics.AliasMetrics.AliasUsage;
+import com.levyxx.minecraftalias.metrics.LatencyHistogram;
+import com.levyxx.minecraftalias.transfer.AliasFileFormat;
+import com.levyxx.minecraftalias.transfer.AliasFileFormat.ParsedAliases;
 import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.stream.Stream;
 
 public final class AliasCommand implements CommandExecutor, TabCompleter {
     private static final String PERMISSION = "minecraftalias.admin";
     private static final int COMMANDS_PER_PAGE = 10;
+    private static final int STATS_ALIAS_LIMIT = 5;
+    private static final int REPORT_LIMIT = 5;
+    private static final String SCOPE_OPTION = "--scope";
+    private static final String COOLDOWN_OPTION = "--cooldown";
+    private static final String RATE_OPTION = "--rate";
+    private static final String OVERWRITE_OPTION = "--overwrite";
+    private static final String TRANSFER_FOLDER = "transfers";
     private static final String PREFIX = ChatColor.GRAY + "[" + ChatColor.GREEN + "Alias" + ChatColor.GRAY + "] " + ChatColor.RESET;
 
+    private final Plugin plugin;
     private final AliasManager aliasManager;
 
-    public AliasCommand(AliasManager aliasManager) {
+    public AliasCommand(Plugin plugin, AliasManager aliasManager) {
+        this.plugin = plugin;
         this.aliasManager = aliasManager;
     }
 
@@ -40,10 +70,26 @@ public final class AliasCommand implements CommandExecutor, TabCompleter {
         }
 
         String sub = args[0].toLowerCase(Locale.ROOT);
+        if (sub.equals("add") || sub.equals("remove") || sub.equals("list")) {
+            OptionArgs options = extractOptions(sender, args, sub.equals("add"));
+            if (options == null) {
+                return true;
+            }
+            switch (sub) {
+                case "add" -> handleAdd(sender, options.args(), options.scope(), options.limit());
+                case "remove" -> handleRemove(sender, options.args(), options.scope());
+                default -> handleList(sender, options.args(), options.scope());
+            }
+            return true;
+        }
+
         switch (sub) {
-            case "add" -> handleAdd(sender, args);
-            case "remove" -> handleRemove(sender, args);
-            case "list" -> handleList(sender, args);
+            case "search" -> handleSearch(sender, args);
+            case "stats" -> handleStats(sender);
+            case "import" -> handleImport(sender, args);
+            case "export" -> handleExport(sender, args);
+            case "reload" -> handleReload(sender);
+            case "explain" -> handleExplain(sender, args);
             default -> {
                 sender.sendMessage(PREFIX + ChatColor.RED + "不明なサブコマンドです。");
                 sendUsage(sender, label);
@@ -52,7 +98,118 @@ public final class AliasCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
-    private void handleAdd(CommandSender sender, String[] args) {
+    /**
+     * Removes the options that directly follow the subcommand in {@code args}: {@code --scope <scope>},
+     * and for {@code add} also {@code --cooldown <duration>} and {@code --rate <count>/<duration>}.
+     * Parsing stops at the first other token, so the command and alias after it are taken as typed.
+     * Returns null after telling the sender when an option is unknown or cannot be parsed.
+     */
+    private OptionArgs extractOptions(CommandSender sender, String[] args, boolean limits) {
+        AliasScope scope = AliasScope.GLOBAL;
+        AliasLimit limit = AliasLimit.NONE;
+        int i = 1;
+        for (; i < args.length && args[i].startsWith("--"); i += 2) {
+            String option = args[i];
+            boolean known = SCOPE_OPTION.equalsIgnoreCase(option)
+                    || limits && (COOLDOWN_OPTION.equalsIgnoreCase(option) || RATE_OPTION.equalsIgnoreCase(option));
+            if (!known) {
+                sender.sendMessage(PREFIX + ChatColor.RED + "不明なオプションです: " + option);
+                return null;
+            }
+            if (i + 1 >= args.length) {
+                sender.sendMessage(PREFIX + ChatColor.RED + option + " の後に値を指定してください。");
+                return null;
+            }
+            String value = args[i + 1];
+            if (SCOPE_OPTION.equalsIgnoreCase(option)) {
+                Optional<AliasScope> parsed = parseScope(sender, value);
+                if (parsed.isEmpty()) {
+                    return null;
+                }
+                scope = parsed.get();
+            } else if (COOLDOWN_OPTION.equalsIgnoreCase(option)) {
+                Optional<Long> millis = AliasLimit.parseDuration(value);
+                if (millis.isEmpty()) {
+                    sender.sendMessage(PREFIX + ChatColor.RED + "クールダウンは 500ms / 5s / 1m / 1h のように 24 時間以内で指定してください。");
+                    return null;
+                }
+                limit = limit.withCooldown(millis.get());
+            } else {
+                Optional<AliasLimit> rate = AliasLimit.parseRate(value);
+                if (rate.isEmpty()) {
+                    sender.sendMessage(PREFIX + ChatColor.RED + "レート制限は <回数>/<期間> (例: 3/10s) で指定してください。");
+                    return null;
+                }
+                limit = limit.withRate(rate.get());
+            }
+        }
+
+        String[] rest = new String[args.length - i + 1];
+        rest[0] = args[0];
+        System.arraycopy(args, i, rest, 1, args.length - i);
+        return new OptionArgs(scope, limit, rest);
+    }
+
+    private Optional<AliasScope> parseScope(CommandSender sender, String value) {
+        String lower = value.toLowerCase(Locale.ROOT);
+        if (lower.equals("global")) {
+            return Optional.of(AliasScope.GLOBAL);
+        }
+        if (lower.equals("me")) {
+            if (sender instanceof Player player) {
+                return Optional.of(AliasScope.player(player.getUniqueId()));
+            }
+            sender.sendMessage(PREFIX + ChatColor.RED + "me はプレイヤーのみ指定できます。");
+            return Optional.empty();
+        }
+        if (lower.startsWith("group:")) {
+            Optional<AliasScope> group = AliasScope.group(value.substring("group:".length()));
+            if (group.isEmpty()) {
+                sender.sendMessage(PREFIX + ChatColor.RED + "グループ名は英数字と _- で指定してください。");
+            }
+            return group;
+        }
+        if (lower.startsWith("player:")) {
+            String name = value.substring("player:".length());
+            try {
+                return Optional.of(AliasScope.player(UUID.fromString(name)));
+            } catch (IllegalArgumentException ignored) {
+                // Not a UUID; look the name up among online players.
+            }
+            Player player = plugin.getServer().getPlayerExact(name);
+            if (player == null) {
+                sender.sendMessage(PREFIX + ChatColor.RED + String.format("プレイヤー %s はオンラインではありません。UUID でも指定できます。", name));
+                return Optional.empty();
+            }
+            return Optional.of(AliasScope.player(player.getUniqueId()));
+        }
+        sender.sendMessage(PREFIX + ChatColor.RED + "スコープは global / group:<グループ> / player:<プレイヤー> / me で指定してください。");
+        return Optional.empty();
+    }
+
+    private String describeScope(AliasScope scope) {
+        return switch (scope.kind()) {
+            case GLOBAL -> "全体";
+            case GROUP -> "グループ " + scope.name();
+            case PLAYER -> {
+                Player player = plugin.getServer().getPlayer(scope.playerId());
+                yield "プレイヤー " + (player != null ? player.getName() : scope.name());
+            }
+        };
+    }
+
+    private static String describeLimit(AliasLimit limit) {
+        List<String> parts = new ArrayList<>(2);
+        if (limit.cooldownMillis() > 0L) {
+            parts.add("クールダウン " + AliasLimit.formatDuration(limit.cooldownMillis()));
+        }
+        if (limit.hasRate()) {
+            parts.add(AliasLimit.formatDuration(limit.ratePeriodMillis()) + " あたり " + limit.rateCount() + " 回まで");
+        }
+        return String.join(" / ", parts);
+    }
+
+    private void handleAdd(CommandSender sender, String[] args, AliasScope scope, AliasLimit limit) {
         if (args.length < 4) {
             sender.sendMessage(PREFIX + ChatColor.YELLOW + "/alias add <exec_command...> by <alias_command...>");
             return;
@@ -90,6 +247,7 @@ public final class AliasCommand implements CommandExecutor, TabCompleter {
             sender.sendMessage(PREFIX + ChatColor.RED + "実行コマンドを正しく指定してください。");
             return;
         }
+        execCommand = limit.toDirectives() + execCommand;
 
         String aliasName = sanitizeCommand(aliasTokens);
         if (aliasName.isEmpty()) {
@@ -99,19 +257,41 @@ public final class AliasCommand implements CommandExecutor, TabCompleter {
 
         if (!aliasManager.isValidAlias(aliasName)) {
             sender.sendMessage(PREFIX + ChatColor.RED + "使用できないエイリアスです。各単語は英数字と _-:. のみ使用できます。(例: gm 1)");
+            sender.sendMessage(ChatColor.GRAY + "2 語目以降は {名前} / {名前:int|player|word|rest} で引数を受け取れます。名前は重複できず、rest は最後の語のみです。");
             return;
         }
 
-        boolean created = aliasManager.addAlias(aliasName, execCommand);
-        if (!created) {
+        AddResult result = aliasManager.addAlias(scope, aliasName, execCommand);
+        if (result == AddResult.DUPLICATE) {
             sender.sendMessage(PREFIX + ChatColor.RED + "そのエイリアスは既に登録されています。");
             return;
         }
 
-        sender.sendMessage(PREFIX + ChatColor.GREEN + String.format("/%s を実行すると /%s が実行されます。", aliasName, stripLeadingSlash(execCommand)));
+        if (result == AddResult.CYCLE) {
+            sender.sendMessage(PREFIX + ChatColor.RED + "エイリアスが循環参照になるため登録できません。");
+            List<String> cycle = aliasManager.findCycle(scope, aliasName, execCommand);
+            if (!cycle.isEmpty()) {
+                sender.sendMessage(ChatColor.GRAY + "/" + String.join(" → /", cycle) + " → /" + aliasName);
+            }
+            return;
+        }
+
+        if (result != AddResult.ADDED) {
+            sender.sendMessage(PREFIX + ChatColor.RED + "エイリアスを登録できませんでした。");
+            return;
+        }
+
+        AliasLimit.Split split = AliasLimit.split(execCommand).orElseGet(() -> new AliasLimit.Split(AliasLimit.NONE, ""));
+        sender.sendMessage(PREFIX + ChatColor.GREEN + String.format("/%s を実行すると /%s が実行されます。", aliasName, stripLeadingSlash(split.command())));
+        if (!split.limit().isNone()) {
+            sender.sendMessage(ChatColor.GRAY + "使用制限: " + describeLimit(split.limit()));
+        }
+        if (scope.kind() != AliasScope.Kind.GLOBAL) {
+            sender.sendMessage(ChatColor.GRAY + "スコープ: " + describeScope(scope));
+        }
     }
 
-    private void handleRemove(CommandSender sender, String[] args) {
+    private void handleRemove(CommandSender sender, String[] args, AliasScope scope) {
         if (args.length < 2) {
             sender.sendMessage(PREFIX + ChatColor.YELLOW + "/alias remove <alias_command...>");
             return;
@@ -124,7 +304,7 @@ public final class AliasCommand implements CommandExecutor, TabCompleter {
             return;
         }
 
-        Optional<AliasRecord> removed = aliasManager.removeAlias(aliasName);
+        Optional<AliasRecord> removed = aliasManager.removeAlias(scope, aliasName);
         if (removed.isPresent()) {
             sender.sendMessage(PREFIX + ChatColor.GREEN + String.format("/%s のエイリアスを削除しました。", removed.get().alias()));
         } else {
@@ -132,29 +312,130 @@ public final class AliasCommand implements CommandExecutor, TabCompleter {
         }
     }
 
-    private void handleList(CommandSender sender, String[] args) {
-        int page = 1;
-        if (args.length >= 3) {
-            sender.sendMessage(PREFIX + ChatColor.YELLOW + "/alias list [page]");
+    private void handleList(CommandSender sender, String[] args, AliasScope scope) {
+        String filter = null;
+        int pageIndex = 1;
+        if (args.length >= 2 && args[1].indexOf(':') > 0 && !isNumber(args[1])) {
+            filter = args[1];
+            pageIndex = 2;
+        }
+        if (args.length > pageIndex + 1) {
+            sender.sendMessage(PREFIX + ChatColor.YELLOW + "/alias list [target:<command>|prefix:<alias>] [page]");
             return;
         }
 
-        if (args.length >= 2) {
-            try {
-                page = Integer.parseInt(args[1]);
-            } catch (NumberFormatException ignored) {
-                sender.sendMessage(PREFIX + ChatColor.RED + "ページは数字で指定してください。");
+        Integer page = parsePage(sender, args, pageIndex);
+        if (page == null) {
+            return;
+        }
+
+        if (scope.kind() != AliasScope.Kind.GLOBAL) {
+            handleScopedList(sender, scope, filter, page);
+            return;
+        }
+
+        if (filter == null) {
+            List<AliasRecord> records = aliasManager.listAliases();
+            if (records.isEmpty()) {
+                sender.sendMessage(PREFIX + ChatColor.YELLOW + "登録されているエイリアスはありません。");
+                return;
+            }
+            sendPage(sender, "エイリアス一覧", records, page, "/alias list");
+            return;
+        }
+
+        String key = filter.substring(0, filter.indexOf(':')).toLowerCase(Locale.ROOT);
+        String value = filter.substring(filter.indexOf(':') + 1);
+        List<AliasRecord> records;
+        if ("target".equals(key)) {
+            records = aliasManager.listAliasesTargeting(value);
+        } else if ("prefix".equals(key)) {
+            records = aliasManager.listAliasesWithPrefix(value);
+        } else {
+            sender.sendMessage(PREFIX + ChatColor.RED + "フィルターは target:<command> または prefix:<alias> で指定してください。");
+            return;
+        }
+
+        if (records.isEmpty()) {
+            sender.sendMessage(PREFIX + ChatColor.YELLOW + "条件に一致するエイリアスはありません。");
+            return;
+        }
+        sendPage(sender, "エイリアス一覧 [" + filter + "]", records, page, "/alias list " + filter);
+    }
+
+    /**
+     * Lists the aliases defined in a group or player layer. Layers are small, so filters are applied by
+     * scanning.
+     */
+    private void handleScopedList(CommandSender sender, AliasScope scope, String filter, int page) {
+        List<AliasRecord> records = aliasManager.listAliases(scope);
+        String option = " " + SCOPE_OPTION + " " + (scope.kind() == AliasScope.Kind.GROUP ? "group:" : "player:") + scope.name();
+        if (filter != null) {
+            String key = filter.substring(0, filter.indexOf(':')).toLowerCase(Locale.ROOT);
+            String value = stripLeadingSlash(filter.substring(filter.indexOf(':') + 1)).toLowerCase(Locale.ROOT);
+            if ("target".equals(key)) {
+                records = records.stream()
+                        .filter(record -> CommandTokens.of(record.target()).token(0).toLowerCase(Locale.ROOT)
+                                .equals(value.split(" ")[0]))
+                        .toList();
+            } else if ("prefix".equals(key)) {
+                records = records.stream().filter(record -> record.normalizedAlias().startsWith(value)).toList();
+            } else {
+                sender.sendMessage(PREFIX + ChatColor.RED + "フィルターは target:<command> または prefix:<alias> で指定してください。");
                 return;
             }
+            option = option + " " + filter;
+        }
+
+        if (records.isEmpty()) {
+            sender.sendMessage(PREFIX + ChatColor.YELLOW + describeScope(scope) + " のエイリアスはありません。");
+            return;
+        }
+        sendPage(sender, "エイリアス一覧 (" + describeScope(scope) + ")", records, page, "/alias list" + option);
+    }
+
+    private void handleSearch(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            sender.sendMessage(PREFIX + ChatColor.YELLOW + "/alias search <text...> [page]");
+            return;
         }
 
-        Collection<AliasRecord> aliases = aliasManager.listAliases();
-        if (aliases.isEmpty()) {
-            sender.sendMessage(PREFIX + ChatColor.YELLOW + "登録されているエイリアスはありません。");
+        int textEnd = args.length > 2 && isNumber(args[args.length - 1]) ? args.length - 1 : args.length;
+        Integer page = parsePage(sender, args, textEnd);
+        if (page == null) {
             return;
         }
 
-        List<AliasRecord> records = new ArrayList<>(aliases);
+        String text = String.join(" ", Arrays.asList(args).subList(1, textEnd));
+        List<AliasRecord> records = aliasManager.searchAliases(text);
+        if (records.isEmpty()) {
+            sender.sendMessage(PREFIX + ChatColor.YELLOW + String.format("\"%s\" を含むエイリアスはありません。", text));
+            return;
+        }
+        sendPage(sender, "検索結果 \"" + text + "\"", records, page, "/alias search " + text);
+    }
+
+    /**
+     * Returns the page number at {@code args[index]}, 1 when it is absent, or null after telling the
+     * sender it is not a number.
+     */
+    private Integer parsePage(CommandSender sender, String[] args, int index) {
+        if (index >= args.length) {
+            return 1;
+        }
+        try {
+            return Integer.parseInt(args[index]);
+        } catch (NumberFormatException ignored) {
+            sender.sendMessage(PREFIX + ChatColor.RED + "ページは数字で指定してください。");
+            return null;
+        }
+    }
+
+    /**
+     * Shows one page of {@code records}. Only the shown slice is read, so the cost does not depend on the
+     * size of the table.
+     */
+    private void sendPage(CommandSender sender, String title, List<AliasRecord> records, int page, String command) {
         int totalPages = (int) Math.ceil(records.size() / (double) COMMANDS_PER_PAGE);
         if (page > totalPages) {
             sender.sendMessage(PREFIX + ChatColor.YELLOW + String.format("ページ数は 1 〜 %d です。最後のページを表示します。", totalPages));
@@ -164,24 +445,277 @@ public final class AliasCommand implements CommandExecutor, TabCompleter {
         int start = (page - 1) * COMMANDS_PER_PAGE;
         int end = Math.min(start + COMMANDS_PER_PAGE, records.size());
 
-        sender.sendMessage(PREFIX + ChatColor.AQUA + String.format("エイリアス一覧 (%d/%d)", page, totalPages));
-        for (int i = start; i < end; i++) {
-            AliasRecord record = records.get(i);
+        sender.sendMessage(PREFIX + ChatColor.AQUA + String.format("%s (%d/%d)", title, page, totalPages));
+        for (AliasRecord record : records.subList(start, end)) {
+            String limit = record.limit().isNone() ? "" : ChatColor.GRAY + " (" + describeLimit(record.limit()) + ")";
             sender.sendMessage(ChatColor.GRAY + "- " + ChatColor.GREEN + "/" + record.alias()
-                    + ChatColor.GRAY + " -> " + ChatColor.WHITE + "/" + stripLeadingSlash(record.command()));
+                    + ChatColor.GRAY + " -> " + ChatColor.WHITE + "/" + stripLeadingSlash(record.target()) + limit);
         }
 
         if (totalPages > 1 && page < totalPages) {
-            sender.sendMessage(PREFIX + ChatColor.GRAY + String.format("次ページ: /alias list %d", page + 1));
+            sender.sendMessage(PREFIX + ChatColor.GRAY + String.format("次ページ: %s %d", command, page + 1));
+        }
+    }
+
+    private static boolean isNumber(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void handleImport(CommandSender sender, String[] args) {
+        if (args.length != 2) {
+            sender.sendMessage(PREFIX + ChatColor.YELLOW + "/alias import <file.yml|file.csv|file.jsonl>");
+            return;
+        }
+
+        Optional<Path> file = resolveTransferFile(sender, args[1]);
+        if (file.isEmpty()) {
+            return;
+        }
+        if (!Files.isRegularFile(file.get())) {
+            sender.sendMessage(PREFIX + ChatColor.RED + "ファイルが見つかりません: " + args[1]);
+            return;
+        }
+
+        AliasFileFormat format = AliasFileFormat.forFile(file.get()).orElseThrow();
+        sender.sendMessage(PREFIX + ChatColor.GRAY + args[1] + " を読み込んでいます...");
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            ParsedAliases parsed;
+            try {
+                parsed = format.read(file.get());
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to read aliases from " + file.get(), e);
+                runOnServerThread(() -> sender.sendMessage(PREFIX + ChatColor.RED + "ファイルの読み込みに失敗しました: " + args[1]));
+                return;
+            }
+
+            ImportResult result = aliasManager.importAliases(parsed.entries());
+            runOnServerThread(() -> reportImport(sender, parsed, result));
+        });
+    }
+
+    private void handleReload(CommandSender sender) {
+        sender.sendMessage(PREFIX + ChatColor.GRAY + "エイリアスを再読み込みしています...");
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            Optional<ReloadResult> result = aliasManager.reload();
+            runOnServerThread(() -> {
+                if (result.isEmpty()) {
+                    sender.sendMessage(PREFIX + ChatColor.RED + "エイリアスの読み込みに失敗しました。現在のエイリアスはそのまま使われます。");
+                } else if (result.get().isEmpty()) {
+                    sender.sendMessage(PREFIX + ChatColor.GREEN + "変更はありませんでした。");
+                } else {
+                    sender.sendMessage(PREFIX + ChatColor.GREEN + String.format("再読み込みしました。追加 %d / 削除 %d / 変更 %d",
+                            result.get().added(), result.get().removed(), result.get().changed()));
+                }
+                if (result.isPresent() && result.get().skipped() > 0) {
+                    sender.sendMessage(PREFIX + ChatColor.YELLOW + String.format("循環参照になる %d 件のエイリアスは読み込まれませんでした。詳細はログを確認してください。",
+                            result.get().skipped()));
+                }
+            });
+        });
+    }
+
+    private void handleExplain(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            sender.sendMessage(PREFIX + ChatColor.YELLOW + "/alias explain <command...>");
+            return;
+        }
+
+        String input = stripLeadingSlash(String.join(" ", Arrays.asList(args).subList(1, args.length)));
+        ResolutionTrace trace = aliasManager.explain(CommandTokens.of(input), sender);
+        sender.sendMessage(PREFIX + ChatColor.AQUA + "/" + trace.input() + " の解決");
+        for (Step step : trace.steps()) {
+            String detail = step.detail().isEmpty() && step.stage() == Stage.MATCH ? "該当なし" : step.detail();
+            sender.sendMessage(ChatColor.GRAY + "- " + stageLabel(step.stage()) + ": " + ChatColor.WHITE + detail
+                    + ChatColor.GRAY + " (" + formatNanos(step.nanos()) + ")");
+        }
+        if (trace.result() == null) {
+            sender.sendMessage(PREFIX + ChatColor.YELLOW + "該当するエイリアスがありません。");
+        } else {
+            sender.sendMessage(PREFIX + ChatColor.GREEN + "実行されるコマンド: /" + trace.result());
+        }
+        sender.sendMessage(ChatColor.GRAY + "- 合計: " + formatNanos(trace.totalNanos()));
+    }
+
+    private static String stageLabel(Stage stage) {
+        return switch (stage) {
+            case VIEW -> "エイリアス一覧";
+            case MATCH -> "一致";
+            case HOP -> "展開";
+            case ARGUMENTS -> "引数込みで再展開";
+            case RENDER -> "プレースホルダー置換";
+            case FAILED -> "エラー";
+        };
+    }
+
+    private static String formatNanos(long nanos) {
+        return String.format(Locale.ROOT, "%,d ns", nanos);
+    }
+
+    private void reportImport(CommandSender sender, ParsedAliases parsed, ImportResult result) {
+        sender.sendMessage(PREFIX + ChatColor.GREEN + String.format("%d 件のエイリアスを取り込みました。", result.added()));
+
+        List<String> invalid = new ArrayList<>(parsed.errors());
+        invalid.addAll(result.invalid());
+        reportSkipped(sender, "形式が正しくない", invalid);
+        reportSkipped(sender, "登録済みまたはファイル内で重複している", result.conflicts());
+        reportSkipped(sender, "循環参照になる", result.cyclic());
+    }
+
+    private void reportSkipped(CommandSender sender, String reason, List<String> skipped) {
+        if (skipped.isEmpty()) {
+            return;
+        }
+        sender.sendMessage(PREFIX + ChatColor.YELLOW + String.format("%s %d 件をスキップしました:", reason, skipped.size()));
+        for (String entry : skipped.subList(0, Math.min(REPORT_LIMIT, skipped.size()))) {
+            sender.sendMessage(ChatColor.GRAY + "- " + entry);
+        }
+        if (skipped.size() > REPORT_LIMIT) {
+            sender.sendMessage(ChatColor.GRAY + String.format("  ほか %d 件", skipped.size() - REPORT_LIMIT));
+        }
+    }
+
+    private void handleExport(CommandSender sender, String[] args) {
+        boolean overwrite = args.length == 3 && OVERWRITE_OPTION.equalsIgnoreCase(args[2]);
+        if (args.length != 2 && !overwrite) {
+            sender.sendMessage(PREFIX + ChatColor.YELLOW + "/alias export <file.yml|file.csv|file.jsonl> [" + OVERWRITE_OPTION + "]");
+            return;
+        }
+
+        Optional<Path> file = resolveTransferFile(sender, args[1]);
+        if (file.isEmpty()) {
+            return;
+        }
+        if (Files.exists(file.get()) && !overwrite) {
+            sender.sendMessage(PREFIX + ChatColor.YELLOW + args[1] + " は既に存在します。上書きする場合は "
+                    + OVERWRITE_OPTION + " を付けてください。");
+            return;
         }
+
+        AliasFileFormat format = AliasFileFormat.forFile(file.get()).orElseThrow();
+        List<AliasRecord> records = aliasManager.listAliases();
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                Files.createDirectories(file.get().getParent());
+                format.write(file.get(), records);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to export aliases to " + file.get(), e);
+                runOnServerThread(() -> sender.sendMessage(PREFIX + ChatColor.RED + "ファイルの書き込みに失敗しました: " + args[1]));
+                return;
+            }
+            runOnServerThread(() -> sender.sendMessage(PREFIX + ChatColor.GREEN
+                    + String.format("%d 件のエイリアスを %s に書き出しました。", records.size(), args[1])));
+        });
+    }
+
+    /**
+     * Resolves an import/export file name inside the transfer folder and checks its format. Names that
+     * lead outside it, also through a link, are rejected, so an export can never replace config.yml or a
+     * scope file.
+     */
+    private Optional<Path> resolveTransferFile(CommandSender sender, String name) {
+        Path folder = transferFolder();
+        Path file = folder.resolve(name).normalize();
+        if (!file.startsWith(folder) || file.equals(folder) || !staysInside(folder, file)) {
+            sender.sendMessage(PREFIX + ChatColor.RED + TRANSFER_FOLDER + " フォルダ内のファイルを指定してください。");
+            return Optional.empty();
+        }
+        if (AliasFileFormat.forFile(file).isEmpty()) {
+            sender.sendMessage(PREFIX + ChatColor.RED + "対応している形式は .yml / .csv / .jsonl です。");
+            return Optional.empty();
+        }
+        return Optional.of(file);
+    }
+
+    private Path transferFolder() {
+        return plugin.getDataFolder().toPath().resolve(TRANSFER_FOLDER).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Whether the closest existing ancestor of {@code file}, or the file itself, is inside {@code folder}
+     * once links are followed.
+     */
+    private static boolean staysInside(Path folder, Path file) {
+        Path existing = file;
+        while (existing != null && !Files.exists(existing)) {
+            existing = existing.getParent();
+        }
+        if (existing == null || !existing.startsWith(folder)) {
+            return true;
+        }
+        try {
+            return existing.toRealPath().startsWith(folder.toRealPath());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void runOnServerThread(Runnable task) {
+        if (plugin.isEnabled()) {
+            plugin.getServer().getScheduler().runTask(plugin, task);
+        }
+    }
+
+    private void handleStats(CommandSender sender) {
+        AliasMetrics metrics = aliasManager.metrics();
+        sender.sendMessage(PREFIX + ChatColor.AQUA + "エイリアス統計 (起動後)");
+        sender.sendMessage(ChatColor.GRAY + "- 解決: " + ChatColor.WHITE + metrics.hitCount()
+                + ChatColor.GRAY + " / 未解決: " + ChatColor.WHITE + metrics.missCount()
+                + ChatColor.GRAY + " / 先頭語で除外: " + ChatColor.WHITE + metrics.skippedCount());
+        sender.sendMessage(ChatColor.GRAY + "- 解決時間: " + formatLatency(metrics.resolution()));
+        sender.sendMessage(ChatColor.GRAY + "- リスナー処理時間: " + formatLatency(metrics.listener()));
+        sender.sendMessage(ChatColor.GRAY + "- マクロ: 待機中 " + ChatColor.WHITE + metrics.macroQueueDepth()
+                + ChatColor.GRAY + " / 最大待機 " + ChatColor.WHITE + metrics.macroPeakQueueDepth()
+                + ChatColor.GRAY + " / 実行 " + ChatColor.WHITE + metrics.macroDispatchedCount()
+                + ChatColor.GRAY + " / 拒否 " + ChatColor.WHITE + metrics.macroRejectedCount()
+                + ChatColor.GRAY + " / 上限到達 " + ChatColor.WHITE + metrics.macroThrottledTickCount() + " tick");
+        sender.sendMessage(ChatColor.GRAY + "- 使用制限で拒否: " + ChatColor.WHITE + metrics.limitedCount());
+
+        List<AliasUsage> mostUsed = metrics.mostUsed(STATS_ALIAS_LIMIT);
+        if (!mostUsed.isEmpty()) {
+            sender.sendMessage(ChatColor.GRAY + "- よく使われるエイリアス:");
+            for (AliasUsage usage : mostUsed) {
+                sender.sendMessage(ChatColor.GRAY + "  " + ChatColor.GREEN + "/" + usage.alias()
+                        + ChatColor.GRAY + " " + usage.hits() + " 回");
+            }
+        }
+
+        List<AliasRecord> unused = metrics.unused(aliasManager.listAliases());
+        sender.sendMessage(ChatColor.GRAY + String.format("- 未使用のエイリアス: %d 件", unused.size()));
+        for (int i = 0; i < Math.min(STATS_ALIAS_LIMIT, unused.size()); i++) {
+            sender.sendMessage(ChatColor.GRAY + "  " + ChatColor.YELLOW + "/" + unused.get(i).alias());
+        }
+    }
+
+    private String formatLatency(LatencyHistogram histogram) {
+        if (histogram.count() == 0) {
+            return ChatColor.WHITE + "記録なし";
+        }
+        return ChatColor.WHITE + String.format(Locale.ROOT, "p50 %.1fµs / p99 %.1fµs / 最大 %.1fµs (%d 件)",
+                histogram.percentile(0.5) / 1000.0, histogram.percentile(0.99) / 1000.0,
+                histogram.max() / 1000.0, histogram.count());
     }
 
     private void sendUsage(CommandSender sender, String label) {
         String base = "/" + label.toLowerCase(Locale.ROOT);
         sender.sendMessage(PREFIX + ChatColor.YELLOW + "使い方:");
-        sender.sendMessage(ChatColor.GRAY + "- " + base + " add <exec_command...> by <alias_command...>");
-        sender.sendMessage(ChatColor.GRAY + "- " + base + " remove <alias_command...>");
-        sender.sendMessage(ChatColor.GRAY + "- " + base + " list [page]");
+        sender.sendMessage(ChatColor.GRAY + "- " + base + " add [--scope <scope>] [--cooldown <時間>] [--rate <回数>/<期間>] <exec_command...> by <alias_command...>");
+        sender.sendMessage(ChatColor.GRAY + "- " + base + " remove [--scope <scope>] <alias_command...>");
+        sender.sendMessage(ChatColor.GRAY + "- " + base + " list [--scope <scope>] [target:<command>|prefix:<alias>] [page]");
+        sender.sendMessage(ChatColor.GRAY + "  <scope>: global / group:<グループ> / player:<プレイヤー> / me");
+        sender.sendMessage(ChatColor.GRAY + "- " + base + " search <text...> [page]");
+        sender.sendMessage(ChatColor.GRAY + "- " + base + " stats");
+        sender.sendMessage(ChatColor.GRAY + "- " + base + " import <file>");
+        sender.sendMessage(ChatColor.GRAY + "- " + base + " export <file> [" + OVERWRITE_OPTION + "]");
+        sender.sendMessage(ChatColor.GRAY + "- " + base + " reload");
+        sender.sendMessage(ChatColor.GRAY + "- " + base + " explain <command...>");
     }
 
     @Override
@@ -191,25 +725,46 @@ public final class AliasCommand implements CommandExecutor, TabCompleter {
         }
 
         if (args.length == 1) {
-            return partialMatches(args[0], List.of("add", "remove", "list"));
+            return partialMatches(args[0], List.of("add", "remove", "list", "search", "stats", "import", "export", "reload", "explain"));
         }
 
-        if (args.length == 2 && "remove".equalsIgnoreCase(args[0])) {
-            return aliasManager.listAliases()
-                    .stream()
-                    .map(AliasRecord::alias)
-                    .filter(name -> name.toLowerCase(Locale.ROOT).startsWith(args[1].toLowerCase(Locale.ROOT)))
-                    .sorted(String.CASE_INSENSITIVE_ORDER)
-                    .toList();
+        if (args.length >= 3 && SCOPE_OPTION.equalsIgnoreCase(args[args.length - 2])) {
+            List<String> scopes = new ArrayList<>(List.of("global", "me", "group:"));
+            for (Player player : plugin.getServer().getOnlinePlayers()) {
+                scopes.add("player:" + player.getName());
+            }
+            return partialMatches(args[args.length - 1], scopes);
+        }
+
+        if (args[args.length - 1].startsWith("-") && isOptionPosition(args)) {
+            if ("add".equalsIgnoreCase(args[0])) {
+                return partialMatches(args[args.length - 1], List.of(SCOPE_OPTION, COOLDOWN_OPTION, RATE_OPTION));
+            }
+            if ("remove".equalsIgnoreCase(args[0]) || "list".equalsIgnoreCase(args[0])) {
+                return partialMatches(args[args.length - 1], List.of(SCOPE_OPTION));
+            }
+        }
+
+        if (args.length >= 2 && ("remove".equalsIgnoreCase(args[0]) || "explain".equalsIgnoreCase(args[0]))) {
+            return aliasManager.completeAlias(Arrays.asList(args).subList(1, args.length));
+        }
+
+        if (args.length == 2 && ("import".equalsIgnoreCase(args[0]) || "export".equalsIgnoreCase(args[0]))) {
+            return partialMatches(args[1], transferFiles());
+        }
+
+        if (args.length == 3 && "export".equalsIgnoreCase(args[0])) {
+            return partialMatches(args[2], List.of(OVERWRITE_OPTION));
         }
 
         if (args.length == 2 && "list".equalsIgnoreCase(args[0])) {
-            int pages = Math.max(1, (int) Math.ceil(aliasManager.size() / (double) COMMANDS_PER_PAGE));
-            List<String> pageNumbers = new ArrayList<>();
-            for (int i = 1; i <= pages; i++) {
-                pageNumbers.add(Integer.toString(i));
+            if (args[1].regionMatches(true, 0, "prefix:", 0, "prefix:".length())) {
+                String typed = args[1].substring("prefix:".length());
+                return aliasManager.completeAlias(List.of(typed)).stream().map(root -> "prefix:" + root).toList();
             }
-            return partialMatches(args[1], pageNumbers);
+            List<String> candidates = new ArrayList<>(List.of("target:", "prefix:"));
+            candidates.addAll(pageNumbers(args[1]));
+            return partialMatches(args[1], candidates);
         }
 
         if ("add".equalsIgnoreCase(args[0])) {
@@ -229,6 +784,52 @@ public final class AliasCommand implements CommandExecutor, TabCompleter {
         return Collections.emptyList();
     }
 
+    /**
+     * Whether the last of {@code args} is where {@link #extractOptions} would read another option name.
+     */
+    private static boolean isOptionPosition(String[] args) {
+        if (args.length % 2 != 0) {
+            return false;
+        }
+        for (int i = 1; i < args.length - 1; i += 2) {
+            if (!args[i].startsWith("--")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<String> transferFiles() {
+        Path folder = transferFolder();
+        if (!Files.isDirectory(folder)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> files = Files.list(folder)) {
+            return files.filter(file -> AliasFileFormat.forFile(file).isPresent())
+                    .map(file -> file.getFileName().toString())
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Page numbers starting with {@code typed}, at most {@link #COMMANDS_PER_PAGE} of them, without
+     * listing every page of a large table.
+     */
+    private List<String> pageNumbers(String typed) {
+        int pages = Math.max(1, (int) Math.ceil(aliasManager.size() / (double) COMMANDS_PER_PAGE));
+        List<String> pageNumbers = new ArrayList<>();
+        for (int i = 1; i <= pages && pageNumbers.size() < COMMANDS_PER_PAGE; i++) {
+            String number = Integer.toString(i);
+            if (number.startsWith(typed)) {
+                pageNumbers.add(number);
+            }
+        }
+        return pageNumbers;
+    }
+
     private List<String> partialMatches(String token, List<String> candidates) {
         if (token == null || token.isEmpty()) {
             return candidates;
@@ -250,7 +851,7 @@ public final class AliasCommand implements CommandExecutor, TabCompleter {
         String joined = String.join(" ", tokens);
         String unquoted = stripWrappingQuotes(joined.trim());
         String withoutSlash = stripLeadingSlash(unquoted);
-        return collapseWhitespace(withoutSlash);
+        return CommandTokens.collapseWhitespace(withoutSlash);
     }
 
     private String stripWrappingQuotes(String value) {
@@ -279,7 +880,5 @@ public final class AliasCommand implements CommandExecutor, TabCompleter {
         return trimmed;
     }
 
-    private String collapseWhitespace(String value) {
-        return value == null ? "" : value.trim().replaceAll("\\s+", " ");
-    }
+    private record OptionArgs(AliasScope scope, AliasLimit limit, String[] args) { }
 }
@@ -0,0 +1,76 @@
+package com.levyxx.minecraftalias.commands;
+
+import com.levyxx.minecraftalias.AliasManager;
+import com.levyxx.minecraftalias.AliasManager.Resolution;
+import com.levyxx.minecraftalias.CommandTokens;
+import com.levyxx.minecraftalias.limits.AliasLimiter;
+import com.levyxx.minecraftalias.macros.MacroScheduler;
+import org.bukkit.ChatColor;
+import org.bukkit.Server;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Server command registered for an alias root token. Bukkit dispatches {@code /<root> ...} here directly,
+ * so aliases under this root need no command interception.
+ */
+final class AliasRootCommand extends Command {
+    private static final String PREFIX = ChatColor.GRAY + "[" + ChatColor.GREEN + "Alias" + ChatColor.GRAY + "] " + ChatColor.RESET;
+
+    private final Server server;
+    private final AliasManager aliasManager;
+    private final MacroScheduler macros;
+    private final AliasLimiter limiter;
+
+    AliasRootCommand(String root, Server server, AliasManager aliasManager, MacroScheduler macros, AliasLimiter limiter) {
+        super(root);
+        this.server = server;
+        this.aliasManager = aliasManager;
+        this.macros = macros;
+        this.limiter = limiter;
+        setDescription("Alias");
+        setUsage("/" + root);
+    }
+
+    @Override
+    public boolean execute(CommandSender sender, String label, String[] args) {
+        StringBuilder message = new StringBuilder(getName());
+        for (String arg : args) {
+            message.append(' ').append(arg);
+        }
+
+        Optional<Resolution> resolved = aliasManager.aliasesFor(sender).resolve(CommandTokens.scratch(message, 0));
+        if (resolved.isEmpty()) {
+            sender.sendMessage(PREFIX + ChatColor.RED + "該当するエイリアスがありません: /" + message);
+            return true;
+        }
+        if (limiter != null && sender instanceof Player player && !limiter.tryAcquire(player, resolved.get().alias())) {
+            return true;
+        }
+        if (resolved.get().macro()) {
+            if (resolved.get().typedSteps()) {
+                sender.sendMessage(PREFIX + ChatColor.RED + "マクロの引数に「;」や「@wait」は使えません。");
+            } else {
+                macros.submit(sender, resolved.get().command());
+            }
+            return true;
+        }
+        if (!server.dispatchCommand(sender, resolved.get().command())) {
+            sender.sendMessage(PREFIX + ChatColor.RED + "エイリアス先のコマンド実行に失敗しました。");
+        }
+        return true;
+    }
+
+    @Override
+    public List<String> tabComplete(CommandSender sender, String alias, String[] args) {
+        List<String> typed = new ArrayList<>(args.length + 1);
+        typed.add(getName());
+        typed.addAll(List.of(args));
+        return aliasManager.completeAlias(typed, sender);
+    }
+}
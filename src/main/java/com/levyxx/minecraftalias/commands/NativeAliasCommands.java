@@ -0,0 +1,170 @@
+package com.levyxx.minecraftalias.commands;
+
+import com.levyxx.minecraftalias.AliasManager;
+import com.levyxx.minecraftalias.limits.AliasLimiter;
+import com.levyxx.minecraftalias.macros.MacroScheduler;
+import org.bukkit.Server;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandMap;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * Registers alias root tokens as commands in the server {@link CommandMap}, so Bukkit dispatches those
+ * aliases itself. Roots that are already taken by another command (e.g. {@code gamemode} for an alias
+ * {@code gamemode 1}) are left to {@link com.levyxx.minecraftalias.listeners.AliasListener}.
+ * <p>
+ * Alias changes may happen on any thread; they only schedule a sync, which runs on the server thread on
+ * the next tick and coalesces all changes made in between.
+ */
+public final class NativeAliasCommands {
+    private final Plugin plugin;
+    private final AliasManager aliasManager;
+    private final MacroScheduler macros;
+    private final AliasLimiter limiter;
+    private final Map<String, AliasRootCommand> registered = new HashMap<>();
+    private final AtomicBoolean syncPending = new AtomicBoolean();
+    private CommandMap commandMap;
+    private Map<String, Command> knownCommands;
+    private volatile Set<String> nativeRoots = Set.of();
+
+    public NativeAliasCommands(Plugin plugin, AliasManager aliasManager, MacroScheduler macros, AliasLimiter limiter) {
+        this.plugin = plugin;
+        this.aliasManager = aliasManager;
+        this.macros = macros;
+        this.limiter = limiter;
+    }
+
+    /**
+     * Looks up the server command map and schedules the first sync. The Bukkit API does not expose the
+     * map, so this goes through the server implementation and returns false when that is not possible.
+     */
+    @SuppressWarnings("unchecked")
+    public boolean enable() {
+        Server server = plugin.getServer();
+        try {
+            commandMap = (CommandMap) server.getClass().getMethod("getCommandMap").invoke(server);
+            knownCommands = (Map<String, Command>) commandMap.getClass().getMethod("getKnownCommands").invoke(commandMap);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            commandMap = null;
+            plugin.getLogger().log(Level.WARNING, "Server command map is not accessible; aliases are dispatched by command interception.", e);
+            return false;
+        }
+
+        aliasManager.addChangeListener(this::requestSync);
+        requestSync();
+        return true;
+    }
+
+    /**
+     * Unregisters every alias command. Must be called on the server thread.
+     */
+    public void disable() {
+        if (commandMap == null) {
+            return;
+        }
+        boolean changed = !registered.isEmpty();
+        for (AliasRootCommand command : registered.values()) {
+            unregister(command);
+        }
+        registered.clear();
+        nativeRoots = Set.of();
+        commandMap = null;
+        if (changed) {
+            updateClients();
+        }
+    }
+
+    /**
+     * Returns whether the first word of {@code text[from..]} is dispatched by a registered alias command,
+     * in which case the listeners must not intercept it.
+     */
+    public boolean handles(CharSequence text, int from) {
+        Set<String> roots = nativeRoots;
+        if (roots.isEmpty()) {
+            return false;
+        }
+
+        int length = text.length();
+        int start = from;
+        while (start < length && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        int end = start;
+        while (end < length && !Character.isWhitespace(text.charAt(end))) {
+            end++;
+        }
+        return start < end && roots.contains(text.subSequence(start, end).toString().toLowerCase(Locale.ROOT));
+    }
+
+    private void requestSync() {
+        if (plugin.isEnabled() && syncPending.compareAndSet(false, true)) {
+            plugin.getServer().getScheduler().runTask(plugin, this::sync);
+        }
+    }
+
+    private void sync() {
+        syncPending.set(false);
+        if (commandMap == null) {
+            return;
+        }
+
+        Set<String> roots = aliasManager.rootTokens();
+        boolean changed = false;
+        Iterator<Map.Entry<String, AliasRootCommand>> iterator = registered.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, AliasRootCommand> entry = iterator.next();
+            if (!roots.contains(entry.getKey())) {
+                unregister(entry.getValue());
+                iterator.remove();
+                changed = true;
+            }
+        }
+
+        String fallbackPrefix = plugin.getName().toLowerCase(Locale.ROOT);
+        for (String root : roots) {
+            if (registered.containsKey(root) || commandMap.getCommand(root) != null) {
+                continue;
+            }
+            AliasRootCommand command = new AliasRootCommand(root, plugin.getServer(), aliasManager, macros, limiter);
+            commandMap.register(fallbackPrefix, command);
+            registered.put(root, command);
+            changed = true;
+        }
+
+        nativeRoots = Set.copyOf(registered.keySet());
+        if (changed) {
+            updateClients();
+        }
+    }
+
+    private void unregister(AliasRootCommand command) {
+        command.unregister(commandMap);
+        knownCommands.remove(command.getName(), command);
+        knownCommands.remove(plugin.getName().toLowerCase(Locale.ROOT) + ":" + command.getName(), command);
+    }
+
+    /**
+     * Rebuilds the server's command tree and resends it, so clients can complete and highlight the alias
+     * roots.
+     */
+    private void updateClients() {
+        Server server = plugin.getServer();
+        try {
+            server.getClass().getMethod("syncCommands").invoke(server);
+        } catch (ReflectiveOperationException e) {
+            plugin.getLogger().log(Level.FINE, "Server does not support syncCommands.", e);
+        }
+        for (Player player : server.getOnlinePlayers()) {
+            player.updateCommands();
+        }
+    }
+}
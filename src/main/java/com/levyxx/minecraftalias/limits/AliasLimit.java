@@ -0,0 +1,178 @@
+package com.levyxx.minecraftalias.limits;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Cooldown and rate limit of an alias, applied per player. Limits are stored as directives in front of
+ * the alias' command, e.g. {@code @cooldown 5s @rate 3/10s tp spawn}, so every storage backend and
+ * export format carries them without changes.
+ *
+ * @param cooldownMillis   minimum time between two uses, 0 for none
+ * @param rateCount        uses allowed per {@code ratePeriodMillis}, 0 for no rate limit
+ * @param ratePeriodMillis period of the rate limit
+ */
+public record AliasLimit(long cooldownMillis, int rateCount, long ratePeriodMillis) {
+    public static final AliasLimit NONE = new AliasLimit(0L, 0, 0L);
+    public static final String COOLDOWN = "@cooldown";
+    public static final String RATE = "@rate";
+
+    private static final long MAX_MILLIS = 24L * 60L * 60L * 1000L;
+    private static final int MAX_RATE_COUNT = 10_000;
+
+    public boolean isNone() {
+        return cooldownMillis == 0L && rateCount == 0;
+    }
+
+    public boolean hasRate() {
+        return rateCount > 0;
+    }
+
+    public AliasLimit withCooldown(long millis) {
+        return new AliasLimit(millis, rateCount, ratePeriodMillis);
+    }
+
+    public AliasLimit withRate(AliasLimit rate) {
+        return new AliasLimit(cooldownMillis, rate.rateCount, rate.ratePeriodMillis);
+    }
+
+    /**
+     * The directives describing this limit, each followed by a space, or an empty string for no limit.
+     */
+    public String toDirectives() {
+        StringBuilder builder = new StringBuilder();
+        if (cooldownMillis > 0L) {
+            builder.append(COOLDOWN).append(' ').append(formatDuration(cooldownMillis)).append(' ');
+        }
+        if (rateCount > 0) {
+            builder.append(RATE).append(' ').append(formatRate()).append(' ');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * The rate limit as {@code <count>/<period>}.
+     */
+    public String formatRate() {
+        return rateCount + "/" + formatDuration(ratePeriodMillis);
+    }
+
+    /**
+     * Separates the leading limit directives of {@code command} from the command itself. Returns empty
+     * when a directive is malformed or repeated, or nothing follows the directives.
+     */
+    public static Optional<Split> split(String command) {
+        if (command.isEmpty() || command.charAt(0) != '@') {
+            return Optional.of(new Split(NONE, command));
+        }
+
+        AliasLimit limit = NONE;
+        int position = 0;
+        while (command.startsWith("@", position)) {
+            int nameEnd = command.indexOf(' ', position);
+            if (nameEnd < 0) {
+                return Optional.empty();
+            }
+            String name = command.substring(position, nameEnd).toLowerCase(Locale.ROOT);
+            if (!name.equals(COOLDOWN) && !name.equals(RATE)) {
+                break;
+            }
+            int valueEnd = command.indexOf(' ', nameEnd + 1);
+            if (valueEnd < 0) {
+                return Optional.empty();
+            }
+            String value = command.substring(nameEnd + 1, valueEnd);
+            if (name.equals(COOLDOWN)) {
+                Optional<Long> cooldown = parseDuration(value);
+                if (cooldown.isEmpty() || limit.cooldownMillis > 0L) {
+                    return Optional.empty();
+                }
+                limit = limit.withCooldown(cooldown.get());
+            } else {
+                Optional<AliasLimit> rate = parseRate(value);
+                if (rate.isEmpty() || limit.hasRate()) {
+                    return Optional.empty();
+                }
+                limit = limit.withRate(rate.get());
+            }
+            position = valueEnd + 1;
+        }
+        return Optional.of(new Split(limit, command.substring(position)));
+    }
+
+    /**
+     * Parses {@code <count>/<duration>}, e.g. {@code 3/10s}.
+     */
+    public static Optional<AliasLimit> parseRate(String value) {
+        int slash = value.indexOf('/');
+        if (slash <= 0) {
+            return Optional.empty();
+        }
+        int count;
+        try {
+            count = Integer.parseInt(value.substring(0, slash));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+        if (count < 1 || count > MAX_RATE_COUNT) {
+            return Optional.empty();
+        }
+        return parseDuration(value.substring(slash + 1)).map(period -> new AliasLimit(0L, count, period));
+    }
+
+    /**
+     * Parses a positive duration of at most a day: a number followed by {@code ms}, {@code s}, {@code m}
+     * or {@code h}, where a bare number means seconds.
+     */
+    public static Optional<Long> parseDuration(String value) {
+        String lower = value.toLowerCase(Locale.ROOT);
+        long unit = 1000L;
+        int end = lower.length();
+        if (lower.endsWith("ms")) {
+            unit = 1L;
+            end -= 2;
+        } else if (lower.endsWith("s")) {
+            end -= 1;
+        } else if (lower.endsWith("m")) {
+            unit = 60_000L;
+            end -= 1;
+        } else if (lower.endsWith("h")) {
+            unit = 3_600_000L;
+            end -= 1;
+        }
+        if (end <= 0 || end > 9) {
+            return Optional.empty();
+        }
+        for (int i = 0; i < end; i++) {
+            if (lower.charAt(i) < '0' || lower.charAt(i) > '9') {
+                return Optional.empty();
+            }
+        }
+        long millis = Long.parseLong(lower, 0, end, 10) * unit;
+        if (millis <= 0L || millis > MAX_MILLIS) {
+            return Optional.empty();
+        }
+        return Optional.of(millis);
+    }
+
+    /**
+     * Formats {@code millis} in the largest unit that represents it exactly.
+     */
+    public static String formatDuration(long millis) {
+        if (millis % 3_600_000L == 0L) {
+            return millis / 3_600_000L + "h";
+        }
+        if (millis % 60_000L == 0L) {
+            return millis / 60_000L + "m";
+        }
+        if (millis % 1000L == 0L) {
+            return millis / 1000L + "s";
+        }
+        return millis + "ms";
+    }
+
+    /**
+     * A command split into its limit and the command the alias runs.
+     */
+    public record Split(AliasLimit limit, String command) { }
+}
@@ -0,0 +1,160 @@
+package com.levyxx.minecraftalias.limits;
+
+import com.levyxx.minecraftalias.AliasManager;
+import com.levyxx.minecraftalias.AliasManager.AliasRecord;
+import com.levyxx.minecraftalias.metrics.AliasMetrics;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces alias cooldowns and rate limits per player. Each limit is a token bucket keyed by the
+ * player's UUID and the alias, plus an optional bucket per player shared by all aliases. Only the alias
+ * a player typed or a macro step ran is charged, not the aliases its command expands through, and other
+ * senders are not limited. Players with {@link #BYPASS_PERMISSION} are exempt.
+ * <p>
+ * Checks may run on any thread. Idle buckets are dropped by an asynchronous sweep.
+ */
+public final class AliasLimiter {
+    public static final String BYPASS_PERMISSION = "minecraftalias.limits.bypass";
+
+    private static final String PREFIX = ChatColor.GRAY + "[" + ChatColor.GREEN + "Alias" + ChatColor.GRAY + "] " + ChatColor.RESET;
+    private static final int COOLDOWN = 1;
+    private static final int RATE = 2;
+    private static final int PLAYER_RATE = 3;
+    private static final long SWEEP_CHECK_TICKS = 20L;
+
+    private final Plugin plugin;
+    private final AliasMetrics metrics;
+    private final AliasLimit playerLimit;
+    private final long sweepIntervalNanos;
+    private final TokenBuckets buckets = new TokenBuckets(1024);
+    private BukkitTask task;
+    private long lastSweep;
+
+    /**
+     * @param playerLimit          rate limit over all aliases of a player; {@link AliasLimit#NONE} for none
+     * @param sweepIntervalSeconds how often idle buckets are dropped; the table is swept earlier when it
+     *                             fills up
+     */
+    public AliasLimiter(Plugin plugin, AliasManager aliasManager, AliasLimit playerLimit, long sweepIntervalSeconds) {
+        this.plugin = plugin;
+        this.metrics = aliasManager.metrics();
+        this.playerLimit = playerLimit;
+        this.sweepIntervalNanos = TimeUnit.SECONDS.toNanos(Math.max(1L, sweepIntervalSeconds));
+    }
+
+    public void start() {
+        if (task == null) {
+            lastSweep = buckets.now();
+            task = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::sweepIfDue,
+                    SWEEP_CHECK_TICKS, SWEEP_CHECK_TICKS);
+        }
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Charges {@code record}, the alias a command resolved to, to {@code player}; null stands for a
+     * command that matched no alias and is only subject to the per-player limit. Returns false after
+     * telling the player how long to wait when a limit is exhausted; no bucket is charged then.
+     */
+    public boolean tryAcquire(Player player, AliasRecord record) {
+        AliasLimit limit = record != null ? record.limit() : AliasLimit.NONE;
+        if (limit.isNone() && playerLimit.isNone() || player.hasPermission(BYPASS_PERMISSION)) {
+            return true;
+        }
+
+        long wait = charge(player.getUniqueId(), record != null ? record.key() : 0, limit, buckets.now());
+        if (wait == 0L) {
+            return true;
+        }
+
+        metrics.limited();
+        player.sendMessage(PREFIX + ChatColor.RED + String.format(Locale.ROOT, "このエイリアスはあと %.1f 秒後に使用できます。",
+                Math.ceil(wait / 100_000_000.0) / 10.0));
+        return false;
+    }
+
+    /**
+     * Takes a token from every bucket that applies, or from none of them: when a bucket refuses, the
+     * tokens already taken are given back. Returns the wait of the refusing bucket, or 0.
+     */
+    private long charge(UUID playerId, int alias, AliasLimit limit, long now) {
+        long cooldown = TimeUnit.MILLISECONDS.toNanos(limit.cooldownMillis());
+        if (cooldown > 0L) {
+            long wait = buckets.acquire(key(playerId, alias, COOLDOWN), cooldown, 1, now);
+            if (wait > 0L) {
+                return wait;
+            }
+        }
+        if (limit.hasRate()) {
+            long wait = buckets.acquire(key(playerId, alias, RATE), interval(limit), limit.rateCount(), now);
+            if (wait > 0L) {
+                refund(playerId, alias, limit, RATE);
+                return wait;
+            }
+        }
+        if (playerLimit.hasRate()) {
+            long wait = buckets.acquire(key(playerId, 0, PLAYER_RATE), interval(playerLimit), playerLimit.rateCount(), now);
+            if (wait > 0L) {
+                refund(playerId, alias, limit, PLAYER_RATE);
+                return wait;
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Gives back the tokens {@link #charge} took from the alias buckets checked before {@code refused}.
+     */
+    private void refund(UUID playerId, int alias, AliasLimit limit, int refused) {
+        if (limit.cooldownMillis() > 0L) {
+            buckets.release(key(playerId, alias, COOLDOWN), TimeUnit.MILLISECONDS.toNanos(limit.cooldownMillis()));
+        }
+        if (refused > RATE && limit.hasRate()) {
+            buckets.release(key(playerId, alias, RATE), interval(limit));
+        }
+    }
+
+    private void sweepIfDue() {
+        long now = buckets.now();
+        if (now - lastSweep >= sweepIntervalNanos || buckets.needsSweep()) {
+            lastSweep = now;
+            buckets.sweep(now);
+        }
+    }
+
+    private static long interval(AliasLimit limit) {
+        return TimeUnit.MILLISECONDS.toNanos(limit.ratePeriodMillis()) / limit.rateCount();
+    }
+
+    /**
+     * Bucket key for a player, an alias (by its {@link AliasRecord#key()}) and a kind of limit. Distinct
+     * buckets collide only if their 64-bit mixes do.
+     */
+    private static long key(UUID playerId, int alias, int kind) {
+        long h = mix(playerId.getMostSignificantBits()) ^ playerId.getLeastSignificantBits();
+        return mix(h ^ ((long) alias << 2 | kind));
+    }
+
+    private static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
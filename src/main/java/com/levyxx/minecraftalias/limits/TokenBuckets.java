@@ -0,0 +1,252 @@
+package com.levyxx.minecraftalias.limits;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free table of token buckets keyed by 64-bit keys. Each bucket is kept in the equivalent GCRA form:
+ * a single long holding the time at which the bucket will be full again, so taking a token is one
+ * compare-and-set and neither lookups nor updates allocate.
+ * <p>
+ * Keys live in an open-addressing table that only ever grows by claiming empty slots. Buckets that have
+ * refilled are full, which is the same as having no bucket, so {@link #sweep(long)} drops them by
+ * migrating the remaining buckets into a fresh table. Migration marks each old slot as moved after
+ * merging its value into the new table; threads still working on the old table see the mark and retry
+ * on the new one, and threads on the new one migrate the slot they need themselves, so no update is lost
+ * and nobody waits for the sweeper.
+ */
+public final class TokenBuckets {
+    private static final long EMPTY = 0L;
+    private static final long SEALED = 1L;
+    private static final long MOVED = -1L;
+    private static final int RETRY = -2;
+    private static final int FULL = -1;
+    private static final int MIN_CAPACITY = 256;
+    private static final int MAX_CAPACITY = 1 << 20;
+
+    private final long origin = System.nanoTime() - 1L;
+    private final int minCapacity;
+    private final AtomicInteger rejectedInserts = new AtomicInteger();
+    private volatile Table current;
+
+    /**
+     * @param minCapacity slots the table never shrinks below
+     */
+    public TokenBuckets(int minCapacity) {
+        this.minCapacity = capacityFor(minCapacity);
+        this.current = new Table(this.minCapacity);
+    }
+
+    /**
+     * Current time on the bucket clock; always positive.
+     */
+    public long now() {
+        return System.nanoTime() - origin;
+    }
+
+    /**
+     * Takes a token from the bucket {@code key}, which holds {@code burst} tokens and gains one every
+     * {@code intervalNanos}. Returns 0 when a token was taken, otherwise the time until one is available.
+     * When the table is full the token is granted without being recorded.
+     */
+    public long acquire(long key, long intervalNanos, int burst, long now) {
+        long slotKey = slotKey(key);
+        long tolerance = (burst - 1) * intervalNanos;
+        while (true) {
+            Table table = current;
+            int slot = table.claim(slotKey);
+            if (slot == FULL) {
+                rejectedInserts.incrementAndGet();
+                return 0L;
+            }
+            if (slot == RETRY) {
+                continue;
+            }
+            Table previous = table.previous;
+            if (previous != null) {
+                migrate(previous, previous.find(slotKey), table, slot);
+            }
+
+            while (true) {
+                long state = table.states.get(slot);
+                if (state == MOVED) {
+                    break;
+                }
+                if (state - tolerance > now) {
+                    return state - tolerance - now;
+                }
+                if (table.states.compareAndSet(slot, state, Math.max(state, now) + intervalNanos)) {
+                    return 0L;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gives back a token {@link #acquire} took from the bucket {@code key} with the same interval. A
+     * token given back while a sweep moves the bucket may be lost, which only leaves the bucket charged.
+     */
+    public void release(long key, long intervalNanos) {
+        Table table = current;
+        int slot = table.find(slotKey(key));
+        if (slot < 0) {
+            return;
+        }
+        while (true) {
+            long state = table.states.get(slot);
+            if (state == MOVED || table.states.compareAndSet(slot, state, Math.max(EMPTY, state - intervalNanos))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Replaces the table with one holding only the buckets that are not full at {@code now}, sized for
+     * them. Must not be called concurrently with itself.
+     */
+    public void sweep(long now) {
+        Table old = current;
+        int live = 0;
+        for (int i = 0; i < old.states.length(); i++) {
+            if (old.states.get(i) > now) {
+                live++;
+            }
+        }
+
+        Table fresh = new Table(Math.max(minCapacity, capacityFor(live * 4)));
+        fresh.previous = old;
+        current = fresh;
+        for (int i = 0; i < old.keys.length(); i++) {
+            if (old.keys.compareAndSet(i, EMPTY, SEALED)) {
+                continue;
+            }
+            long state = old.states.get(i);
+            if (state == MOVED || state <= now && old.states.compareAndSet(i, state, MOVED)) {
+                continue;
+            }
+            int slot = fresh.claim(old.keys.get(i));
+            if (slot < 0) {
+                old.states.set(i, MOVED);
+                continue;
+            }
+            migrate(old, i, fresh, slot);
+        }
+        fresh.previous = null;
+    }
+
+    /**
+     * Whether the table is filled enough that the next sweep should not wait for its interval.
+     */
+    public boolean needsSweep() {
+        Table table = current;
+        return table.used.get() > table.keys.length() / 2;
+    }
+
+    /**
+     * Number of buckets granted unrecorded because the table was full.
+     */
+    public int rejectedInserts() {
+        return rejectedInserts.get();
+    }
+
+    /**
+     * Moves the bucket in slot {@code from} of {@code old} into slot {@code to} of {@code fresh}. The value
+     * is merged before the old slot is marked, so whoever sees the mark finds the bucket in place.
+     */
+    private static void migrate(Table old, int from, Table fresh, int to) {
+        if (from < 0) {
+            return;
+        }
+        while (true) {
+            long state = old.states.get(from);
+            if (state == MOVED) {
+                return;
+            }
+            fresh.mergeMax(to, state);
+            if (old.states.compareAndSet(from, state, MOVED)) {
+                return;
+            }
+        }
+    }
+
+    private static long slotKey(long key) {
+        return key == EMPTY || key == SEALED ? key + 2L : key;
+    }
+
+    private static int capacityFor(int entries) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, Math.min(MAX_CAPACITY, entries)) - 1) << 1;
+        return Math.max(MIN_CAPACITY, Math.min(MAX_CAPACITY, capacity));
+    }
+
+    private static int spread(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static final class Table {
+        private final AtomicLongArray keys;
+        private final AtomicLongArray states;
+        private final AtomicInteger used = new AtomicInteger();
+        private final int mask;
+        private volatile Table previous;
+
+        private Table(int capacity) {
+            this.keys = new AtomicLongArray(capacity);
+            this.states = new AtomicLongArray(capacity);
+            this.mask = capacity - 1;
+        }
+
+        /**
+         * Slot of {@code key}, or -1.
+         */
+        private int find(long key) {
+            int index = spread(key) & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                long present = keys.get(index);
+                if (present == key) {
+                    return index;
+                }
+                if (present == EMPTY || present == SEALED) {
+                    return -1;
+                }
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * Slot of {@code key}, claiming an empty one when it is absent. Returns {@link #FULL} when there is
+         * no room and {@link #RETRY} when the table is being swept.
+         */
+        private int claim(long key) {
+            int index = spread(key) & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                long present = keys.get(index);
+                if (present == EMPTY) {
+                    if (keys.compareAndSet(index, EMPTY, key)) {
+                        used.incrementAndGet();
+                        return index;
+                    }
+                    present = keys.get(index);
+                }
+                if (present == key) {
+                    return index;
+                }
+                if (present == SEALED) {
+                    return RETRY;
+                }
+                index = (index + 1) & mask;
+            }
+            return FULL;
+        }
+
+        private void mergeMax(int slot, long value) {
+            while (true) {
+                long state = states.get(slot);
+                if (state >= value || states.compareAndSet(slot, state, value)) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package com.levyxx.minecraftalias.listeners;
 
 import com.levyxx.minecraftalias.AliasManager;
-import com.levyxx.minecraftalias.AliasManager.AliasRecord;
+import com.levyxx.minecraftalias.AliasManager.Resolution;
+import com.levyxx.minecraftalias.CommandTokens;
+import com.levyxx.minecraftalias.commands.NativeAliasCommands;
+import com.levyxx.minecraftalias.limits.AliasLimiter;
+import com.levyxx.minecraftalias.macros.MacroScheduler;
+import com.levyxx.minecraftalias.metrics.AliasMetrics;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
@@ -9,41 +14,60 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.server.ServerCommandEvent;
+import org.bukkit.event.server.TabCompleteEvent;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.logging.Logger;
 
 public final class AliasListener implements Listener {
     private static final String PREFIX = ChatColor.GRAY + "[" + ChatColor.GREEN + "Alias" + ChatColor.GRAY + "] " + ChatColor.RESET;
 
     private final AliasManager aliasManager;
-    private final Logger logger;
+    private final AliasMetrics metrics;
+    private final NativeAliasCommands nativeCommands;
+    private final MacroScheduler macros;
+    private final AliasLimiter limiter;
 
-    public AliasListener(AliasManager aliasManager, Logger logger) {
+    public AliasListener(AliasManager aliasManager) {
+        this(aliasManager, null, null, null);
+    }
+
+    /**
+     * @param nativeCommands alias roots registered as server commands, which are left to Bukkit's own
+     *                       dispatch; may be null
+     * @param macros         runs macro aliases; when null, a macro is dispatched as a single command
+     * @param limiter        enforces alias cooldowns and rate limits for players; may be null
+     */
+    public AliasListener(AliasManager aliasManager, NativeAliasCommands nativeCommands, MacroScheduler macros, AliasLimiter limiter) {
         this.aliasManager = aliasManager;
-        this.logger = logger;
+        this.metrics = aliasManager.metrics();
+        this.nativeCommands = nativeCommands;
+        this.macros = macros;
+        this.limiter = limiter;
     }
 
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onPlayerCommand(PlayerCommandPreprocessEvent event) {
-        String message = event.getMessage();
-        if (message == null || message.isBlank() || message.charAt(0) != '/') {
-            return;
-        }
-
+        long started = System.nanoTime();
         Player player = event.getPlayer();
-        String raw = message.substring(1).trim();
-        Optional<ResolvedCommand> resolved = resolve(raw, player);
+        Optional<Resolution> resolved = resolvePlayerCommand(event.getMessage(), player);
+        metrics.listener().record(System.nanoTime() - started);
         if (resolved.isEmpty()) {
             return;
         }
 
         event.setCancelled(true);
+        if (limiter != null && !limiter.tryAcquire(player, resolved.get().alias())) {
+            return;
+        }
         String commandToDispatch = resolved.get().command();
+        if (isMacro(resolved.get())) {
+            submitMacro(player, resolved.get());
+            return;
+        }
         boolean success = player.performCommand(commandToDispatch);
         if (!success) {
             player.sendMessage(PREFIX + ChatColor.RED + "エイリアス先のコマンド実行に失敗しました。");
@@ -52,84 +76,90 @@ public final class AliasListener implements Listener {
 
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onServerCommand(ServerCommandEvent event) {
+        long started = System.nanoTime();
         String command = event.getCommand();
-        if (command == null || command.isBlank()) {
-            return;
+        AliasManager.SenderAliases aliases = command == null ? null : aliasManager.aliasesFor(event.getSender());
+        if (aliases != null && aliases.isAliasRoot(command, 0) && !isNative(command, 0)) {
+            resolve(CommandTokens.scratch(command, 0), aliases).ifPresent(res -> {
+                if (isMacro(res)) {
+                    event.setCancelled(true);
+                    submitMacro(event.getSender(), res);
+                } else {
+                    event.setCommand(res.command());
+                }
+            });
         }
-
-        Optional<ResolvedCommand> resolved = resolve(command.trim(), event.getSender());
-        resolved.ifPresent(res -> {
-            event.setCommand(res.command());
-        });
+        metrics.listener().record(System.nanoTime() - started);
     }
 
-    private Optional<ResolvedCommand> resolve(String raw, CommandSender sender) {
-        if (raw.isEmpty()) {
-            return Optional.empty();
+    /**
+     * Adds alias completions to commands that are registered with the server. Alias roots themselves can
+     * only be completed once the client knows them as commands, i.e. when they are registered natively.
+     */
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onTabComplete(TabCompleteEvent event) {
+        String buffer = event.getBuffer();
+        if (buffer == null || buffer.isEmpty()) {
+            return;
         }
 
-        List<String> tokens = tokenize(raw);
-        if (tokens.isEmpty()) {
-            return Optional.empty();
+        List<String> typed = CommandTokens.scratch(buffer, buffer.charAt(0) == '/' ? 1 : 0).toList();
+        if (typed.isEmpty() || Character.isWhitespace(buffer.charAt(buffer.length() - 1))) {
+            typed.add("");
         }
-
-        Optional<String> resolved = aliasManager.resolveCommand(tokens);
-        if (resolved.isEmpty()) {
-            findMatchingAlias(tokens).ifPresent(match -> {
-                sender.sendMessage(PREFIX + ChatColor.RED + "エイリアスの解決に失敗しました。循環参照がないか確認してください。");
-                logger.warning(() -> "Failed to resolve alias '/" + match.alias() + "' due to potential loop.");
-            });
-            return Optional.empty();
+        List<String> aliasCompletions = aliasManager.completeAlias(typed, event.getSender());
+        if (aliasCompletions.isEmpty()) {
+            return;
         }
 
-        String commandLine = resolved.get();
-        if (sender instanceof Player player) {
-            commandLine = applyPlayerPlaceholders(commandLine, player);
+        List<String> completions = new ArrayList<>(event.getCompletions());
+        for (String completion : aliasCompletions) {
+            if (!completions.contains(completion)) {
+                completions.add(completion);
+            }
         }
+        event.setCompletions(completions);
+    }
 
-        return Optional.of(new ResolvedCommand(commandLine));
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        aliasManager.evict(event.getPlayer().getUniqueId());
     }
 
-    private List<String> tokenize(String raw) {
-        String trimmed = raw.trim();
-        if (trimmed.isEmpty()) {
-            return List.of();
+    private Optional<Resolution> resolvePlayerCommand(String message, Player player) {
+        if (message == null || message.isEmpty() || message.charAt(0) != '/') {
+            return Optional.empty();
         }
-        return new ArrayList<>(Arrays.asList(trimmed.split("\\s+")));
+        AliasManager.SenderAliases aliases = aliasManager.aliasesFor(player);
+        if (!aliases.isAliasRoot(message, 1) || isNative(message, 1)) {
+            return Optional.empty();
+        }
+        return resolve(CommandTokens.scratch(message, 1), aliases);
     }
 
-    private Optional<AliasRecord> findMatchingAlias(List<String> tokens) {
-        AliasRecord best = null;
-        int bestLength = 0;
-
-        for (AliasRecord record : aliasManager.listAliases()) {
-            List<String> aliasTokens = record.aliasTokens();
-            if (aliasTokens.size() > tokens.size()) {
-                continue;
-            }
-
-            boolean matches = true;
-            for (int i = 0; i < aliasTokens.size(); i++) {
-                if (!aliasTokens.get(i).equalsIgnoreCase(tokens.get(i))) {
-                    matches = false;
-                    break;
-                }
-            }
+    private boolean isMacro(Resolution resolution) {
+        return macros != null && resolution.macro();
+    }
 
-            if (matches && aliasTokens.size() > bestLength) {
-                best = record;
-                bestLength = aliasTokens.size();
-            }
+    /**
+     * Queues a macro unless the typed arguments would add steps to it.
+     */
+    private void submitMacro(CommandSender sender, Resolution resolution) {
+        if (resolution.typedSteps()) {
+            sender.sendMessage(PREFIX + ChatColor.RED + "マクロの引数に「;」や「@wait」は使えません。");
+            return;
         }
-
-        return Optional.ofNullable(best);
+        macros.submit(sender, resolution.command());
     }
 
-    private String applyPlayerPlaceholders(String commandLine, Player player) {
-        return commandLine
-                .replace("%player%", player.getName())
-                .replace("%displayname%", ChatColor.stripColor(player.getDisplayName()));
+    private boolean isNative(String command, int from) {
+        return nativeCommands != null && nativeCommands.handles(command, from);
     }
 
-    private record ResolvedCommand(String command) { }
+    private Optional<Resolution> resolve(CommandTokens tokens, AliasManager.SenderAliases aliases) {
+        if (tokens.isEmpty()) {
+            return Optional.empty();
+        }
+        return aliases.resolve(tokens);
+    }
 }
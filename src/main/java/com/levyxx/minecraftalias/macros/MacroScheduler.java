@@ -0,0 +1,265 @@
+package com.levyxx.minecraftalias.macros;
+
+import com.levyxx.minecraftalias.AliasManager;
+import com.levyxx.minecraftalias.AliasManager.Resolution;
+import com.levyxx.minecraftalias.CommandTokens;
+import com.levyxx.minecraftalias.limits.AliasLimiter;
+import com.levyxx.minecraftalias.metrics.AliasMetrics;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Runs macro aliases on the server thread without letting them stall a tick. Each sender has a bounded
+ * queue of pending commands; every tick the queues are served round-robin, one command at a time, until
+ * the per-tick command count or time budget is used up. Commands that are due but over budget wait for
+ * the next tick.
+ * <p>
+ * Steps are resolved when they run, so a step may itself be an alias or another macro; the commands of
+ * a nested macro run before the remaining steps of the outer one. A step that resolves to an alias is
+ * charged against that alias's limits like a typed command. All methods must be called on the server
+ * thread.
+ */
+public final class MacroScheduler {
+    private static final String PREFIX = ChatColor.GRAY + "[" + ChatColor.GREEN + "Alias" + ChatColor.GRAY + "] " + ChatColor.RESET;
+
+    private final Plugin plugin;
+    private final AliasManager aliasManager;
+    private final AliasMetrics metrics;
+    private final AliasLimiter limiter;
+    private final int commandsPerTick;
+    private final long tickBudgetNanos;
+    private final int maxQueuedPerSender;
+    private final Map<Object, SenderQueue> queues = new HashMap<>();
+    private final Deque<SenderQueue> rotation = new ArrayDeque<>();
+    private BukkitTask task;
+    private long tick;
+    private int dispatchedThisTick;
+    private long spentThisTick;
+    private long throttledTick = -1L;
+    private boolean draining;
+
+    /**
+     * @param limiter charges the aliases that steps resolve to; may be null
+     */
+    public MacroScheduler(Plugin plugin, AliasManager aliasManager, AliasLimiter limiter, int commandsPerTick, long tickBudgetNanos,
+                          int maxQueuedPerSender) {
+        this.plugin = plugin;
+        this.aliasManager = aliasManager;
+        this.metrics = aliasManager.metrics();
+        this.limiter = limiter;
+        this.commandsPerTick = Math.max(1, commandsPerTick);
+        this.tickBudgetNanos = tickBudgetNanos > 0L ? tickBudgetNanos : Long.MAX_VALUE;
+        this.maxQueuedPerSender = Math.max(1, maxQueuedPerSender);
+    }
+
+    public void start() {
+        if (task == null) {
+            task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    /**
+     * Stops dispatching and drops every pending command.
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        for (SenderQueue queue : queues.values()) {
+            metrics.macroDequeued(queue.steps.size());
+        }
+        queues.clear();
+        rotation.clear();
+    }
+
+    /**
+     * Queues the steps of the resolved macro {@code macro} for {@code sender} and runs what the current
+     * tick's budget allows. Its first step is taken as already resolved. The sender is told when the
+     * macro is malformed or does not fit into their queue.
+     */
+    public void submit(CommandSender sender, String macro) {
+        Optional<List<MacroStep>> steps = MacroScript.parse(macro);
+        if (steps.isEmpty()) {
+            sender.sendMessage(PREFIX + ChatColor.RED + "マクロの形式が正しくありません。");
+            return;
+        }
+
+        SenderQueue queue = queues.computeIfAbsent(key(sender), key -> new SenderQueue());
+        queue.sender = sender;
+        if (!enqueue(queue, steps.get(), false)) {
+            sender.sendMessage(PREFIX + ChatColor.RED + "実行待ちのコマンドが多すぎるため、マクロを実行できません。");
+            return;
+        }
+        drain();
+    }
+
+    /**
+     * Number of senders with pending commands.
+     */
+    public int activeQueues() {
+        return rotation.size();
+    }
+
+    private void tick() {
+        tick++;
+        dispatchedThisTick = 0;
+        spentThisTick = 0L;
+        drain();
+    }
+
+    /**
+     * Adds {@code steps}, whose first step is already resolved, to {@code queue}: at the end for a new
+     * macro, or at the front for a macro nested in the step that just ran.
+     */
+    private boolean enqueue(SenderQueue queue, List<MacroStep> steps, boolean nested) {
+        if (queue.steps.size() + steps.size() > maxQueuedPerSender) {
+            metrics.macroRejected();
+            return false;
+        }
+
+        boolean wasEmpty = queue.steps.isEmpty();
+        if (nested) {
+            for (int i = steps.size() - 1; i >= 0; i--) {
+                queue.steps.addFirst(pending(steps.get(i), i == 0));
+            }
+        } else {
+            for (int i = 0; i < steps.size(); i++) {
+                queue.steps.addLast(pending(steps.get(i), i == 0));
+            }
+        }
+        if (nested || wasEmpty) {
+            queue.readyTick = tick + steps.get(0).delayTicks();
+        }
+        metrics.macroQueued(steps.size(), queue.steps.size());
+        if (!queue.scheduled) {
+            queue.scheduled = true;
+            rotation.addLast(queue);
+        }
+        return true;
+    }
+
+    private static Pending pending(MacroStep step, boolean resolved) {
+        return new Pending(step.command(), step.delayTicks(), resolved);
+    }
+
+    private void drain() {
+        if (draining) {
+            return;
+        }
+        draining = true;
+        try {
+            int idle = 0;
+            while (!rotation.isEmpty() && idle < rotation.size()) {
+                if (dispatchedThisTick >= commandsPerTick || spentThisTick >= tickBudgetNanos) {
+                    if (throttledTick != tick && hasDueQueue()) {
+                        throttledTick = tick;
+                        metrics.macroThrottled();
+                    }
+                    return;
+                }
+
+                SenderQueue queue = rotation.pollFirst();
+                if (queue.readyTick > tick) {
+                    rotation.addLast(queue);
+                    idle++;
+                    continue;
+                }
+
+                idle = 0;
+                runNext(queue);
+                if (queue.steps.isEmpty()) {
+                    queue.scheduled = false;
+                    queues.remove(key(queue.sender));
+                } else {
+                    rotation.addLast(queue);
+                }
+            }
+        } finally {
+            draining = false;
+        }
+    }
+
+    private boolean hasDueQueue() {
+        for (SenderQueue queue : rotation) {
+            if (queue.readyTick <= tick) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void runNext(SenderQueue queue) {
+        if (queue.sender instanceof Player player && !player.isOnline()) {
+            metrics.macroDequeued(queue.steps.size());
+            queue.steps.clear();
+            return;
+        }
+
+        Pending step = queue.steps.pollFirst();
+        metrics.macroDequeued(1);
+        String command = step.command();
+        AliasManager.SenderAliases aliases = step.resolved() ? null : aliasManager.aliasesFor(queue.sender);
+        if (aliases != null && aliases.isAliasRoot(command, 0)) {
+            Optional<Resolution> resolved = aliases.resolve(CommandTokens.scratch(command, 0));
+            if (resolved.isPresent()) {
+                if (limiter != null && queue.sender instanceof Player player && !limiter.tryAcquire(player, resolved.get().alias())) {
+                    scheduleNext(queue);
+                    return;
+                }
+                command = resolved.get().command();
+                if (resolved.get().macro()) {
+                    Optional<List<MacroStep>> nested = resolved.get().typedSteps() ? Optional.empty() : MacroScript.parse(command);
+                    if (nested.isEmpty() || !enqueue(queue, nested.get(), true)) {
+                        queue.sender.sendMessage(PREFIX + ChatColor.RED + "マクロ内のエイリアスを実行できませんでした: /" + step.command());
+                    }
+                    scheduleNext(queue);
+                    return;
+                }
+            }
+        }
+
+        long started = System.nanoTime();
+        boolean success = plugin.getServer().dispatchCommand(queue.sender, command);
+        spentThisTick += System.nanoTime() - started;
+        dispatchedThisTick++;
+        metrics.macroDispatched();
+        if (!success) {
+            queue.sender.sendMessage(PREFIX + ChatColor.RED + "マクロのコマンド実行に失敗しました: /" + command);
+        }
+        scheduleNext(queue);
+    }
+
+    private void scheduleNext(SenderQueue queue) {
+        Pending next = queue.steps.peekFirst();
+        if (next != null) {
+            queue.readyTick = tick + next.delayTicks();
+        }
+    }
+
+    private static Object key(CommandSender sender) {
+        return sender instanceof Player player ? player.getUniqueId() : sender.getName();
+    }
+
+    private record Pending(String command, int delayTicks, boolean resolved) { }
+
+    private static final class SenderQueue {
+        private final Deque<Pending> steps = new ArrayDeque<>();
+        private CommandSender sender;
+        private long readyTick;
+        /**
+         * Whether the queue is in the rotation or being run by it.
+         */
+        private boolean scheduled;
+    }
+}
@@ -0,0 +1,95 @@
+package com.levyxx.minecraftalias.macros;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Syntax of macro commands: steps are separated by a standalone {@code ;} token, and a step of the form
+ * {@code @wait <ticks>} delays the step after it. For example {@code say 3 ; @wait 20 ; say 2} runs the
+ * second {@code say} one second after the first. Commands without a standalone {@code ;} are not macros.
+ */
+public final class MacroScript {
+    public static final String SEPARATOR = ";";
+    public static final String WAIT = "@wait";
+    static final int MAX_WAIT_TICKS = 20 * 60 * 60;
+
+    private MacroScript() {
+    }
+
+    /**
+     * Returns whether {@code command}, with single spaces between tokens, contains a standalone
+     * {@code ;} token. Scans in place.
+     */
+    public static boolean isMacro(String command) {
+        int index = command.indexOf(';');
+        while (index >= 0) {
+            boolean startsToken = index == 0 || command.charAt(index - 1) == ' ';
+            boolean endsToken = index == command.length() - 1 || command.charAt(index + 1) == ' ';
+            if (startsToken && endsToken) {
+                return true;
+            }
+            index = command.indexOf(';', index + 1);
+        }
+        return false;
+    }
+
+    /**
+     * Splits a macro into its steps, folding {@code @wait} steps into the delay of the following step.
+     * Returns empty when a step is empty, a wait is malformed or out of range, or the macro ends with a
+     * wait.
+     */
+    public static Optional<List<MacroStep>> parse(String command) {
+        List<String> segments = new ArrayList<>();
+        StringBuilder segment = new StringBuilder();
+        for (String token : command.trim().split(" +")) {
+            if (token.equals(SEPARATOR)) {
+                segments.add(segment.toString());
+                segment.setLength(0);
+            } else {
+                if (segment.length() > 0) {
+                    segment.append(' ');
+                }
+                segment.append(token);
+            }
+        }
+        segments.add(segment.toString());
+
+        List<MacroStep> steps = new ArrayList<>();
+        int delay = 0;
+        for (String step : segments) {
+            if (step.isEmpty()) {
+                return Optional.empty();
+            }
+
+            if (step.startsWith(WAIT + " ") || step.equals(WAIT)) {
+                int ticks = parseTicks(step.substring(WAIT.length()).trim());
+                if (ticks < 0 || delay + ticks > MAX_WAIT_TICKS) {
+                    return Optional.empty();
+                }
+                delay += ticks;
+                continue;
+            }
+
+            steps.add(new MacroStep(step, delay));
+            delay = 0;
+        }
+
+        if (steps.isEmpty() || delay > 0) {
+            return Optional.empty();
+        }
+        return Optional.of(List.copyOf(steps));
+    }
+
+    private static int parseTicks(String value) {
+        if (value.isEmpty() || value.length() > 7) {
+            return -1;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) < '0' || value.charAt(i) > '9') {
+                return -1;
+            }
+        }
+        return Integer.parseInt(value);
+    }
+}
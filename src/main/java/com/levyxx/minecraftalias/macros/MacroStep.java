@@ -0,0 +1,6 @@
+package com.levyxx.minecraftalias.macros;
+
+/**
+ * One command of a macro, run {@code delayTicks} server ticks after the previous one.
+ */
+public record MacroStep(String command, int delayTicks) { }
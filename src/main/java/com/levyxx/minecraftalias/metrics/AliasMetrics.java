@@ -0,0 +1,253 @@
+package com.levyxx.minecraftalias.metrics;
+
+import com.levyxx.minecraftalias.AliasManager.AliasRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Usage counters and latency histograms for alias resolution. Recording is lock-free and cheap enough
+ * for every command: counters are striped {@link LongAdder}s and per-alias counters are created on first
+ * use only, in an array indexed by {@link AliasRecord#key()}.
+ */
+public final class AliasMetrics {
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LatencyHistogram resolution = new LatencyHistogram();
+    private final LatencyHistogram listener = new LatencyHistogram();
+    private final Object aliasesLock = new Object();
+    private volatile Counters[] aliases = new Counters[64];
+    private final LongAdder macroQueued = new LongAdder();
+    private final AtomicInteger macroPeakDepth = new AtomicInteger();
+    private final LongAdder macroDispatched = new LongAdder();
+    private final LongAdder macroRejected = new LongAdder();
+    private final LongAdder macroThrottledTicks = new LongAdder();
+    private final LongAdder limited = new LongAdder();
+
+    /**
+     * A command whose first word cannot start an alias.
+     */
+    public void skipped() {
+        skipped.increment();
+    }
+
+    /**
+     * A command that passed the first-word check but matched no alias.
+     */
+    public void miss() {
+        misses.increment();
+    }
+
+    public void hit(AliasRecord record) {
+        hits.increment();
+        counters(record).hits.increment();
+    }
+
+    /**
+     * Time spent resolving a command in {@code AliasManager}, placeholders included.
+     */
+    public LatencyHistogram resolution() {
+        return resolution;
+    }
+
+    /**
+     * Time the command listeners spend on a command, excluding the dispatch of the resolved command.
+     */
+    public LatencyHistogram listener() {
+        return listener;
+    }
+
+    /**
+     * {@code steps} macro commands were queued for a sender whose queue now holds {@code depth} commands.
+     */
+    public void macroQueued(int steps, int depth) {
+        macroQueued.add(steps);
+        macroPeakDepth.accumulateAndGet(depth, Math::max);
+    }
+
+    /**
+     * {@code steps} queued macro commands were dispatched or dropped.
+     */
+    public void macroDequeued(int steps) {
+        macroQueued.add(-steps);
+    }
+
+    public void macroDispatched() {
+        macroDispatched.increment();
+    }
+
+    /**
+     * A macro was refused because the sender's queue was full.
+     */
+    public void macroRejected() {
+        macroRejected.increment();
+    }
+
+    /**
+     * A tick ended with macro commands that were due but exceeded the tick budget.
+     */
+    public void macroThrottled() {
+        macroThrottledTicks.increment();
+    }
+
+    /**
+     * An alias invocation was refused by its cooldown or rate limit.
+     */
+    public void limited() {
+        limited.increment();
+    }
+
+    public long skippedCount() {
+        return skipped.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Macro commands currently waiting in all queues.
+     */
+    public long macroQueueDepth() {
+        return macroQueued.sum();
+    }
+
+    /**
+     * Largest number of commands a single sender's queue has held since startup.
+     */
+    public int macroPeakQueueDepth() {
+        return macroPeakDepth.get();
+    }
+
+    public long macroDispatchedCount() {
+        return macroDispatched.sum();
+    }
+
+    public long macroRejectedCount() {
+        return macroRejected.sum();
+    }
+
+    public long macroThrottledTickCount() {
+        return macroThrottledTicks.sum();
+    }
+
+    public long limitedCount() {
+        return limited.sum();
+    }
+
+    public long hits(AliasRecord record) {
+        Counters counters = find(record.key());
+        return counters == null ? 0L : counters.hits.sum();
+    }
+
+    /**
+     * The {@code limit} most used aliases, most hits first.
+     */
+    public List<AliasUsage> mostUsed(int limit) {
+        List<AliasUsage> usage = new ArrayList<>();
+        for (Counters counters : aliases) {
+            if (counters != null) {
+                usage.add(new AliasUsage(counters.alias, counters.hits.sum()));
+            }
+        }
+        usage.sort(Comparator.comparingLong(AliasUsage::hits).reversed().thenComparing(AliasUsage::alias));
+        return usage.subList(0, Math.min(limit, usage.size()));
+    }
+
+    /**
+     * Returns the records of {@code table} that have not resolved a single command since startup.
+     */
+    public List<AliasRecord> unused(Collection<AliasRecord> table) {
+        List<AliasRecord> unused = new ArrayList<>();
+        for (AliasRecord record : table) {
+            Counters counters = find(record.key());
+            if (counters == null || counters.hits.sum() == 0) {
+                unused.add(record);
+            }
+        }
+        return unused;
+    }
+
+    /**
+     * Drops the counters of {@code record}'s alias key. Same-named aliases of every scope share the key,
+     * so callers forget it only once no scope defines the alias.
+     */
+    public void forget(AliasRecord record) {
+        synchronized (aliasesLock) {
+            Counters[] current = aliases;
+            if (record.key() < current.length) {
+                current[record.key()] = null;
+            }
+            aliases = current;
+        }
+    }
+
+    /**
+     * Drops the counters of aliases that are no longer in {@code table}, which should hold the records of
+     * every scope.
+     */
+    public void retain(Collection<AliasRecord> table) {
+        BitSet present = new BitSet();
+        for (AliasRecord record : table) {
+            present.set(record.key());
+        }
+        synchronized (aliasesLock) {
+            Counters[] current = aliases;
+            for (int key = present.nextClearBit(0); key < current.length; key = present.nextClearBit(key + 1)) {
+                current[key] = null;
+            }
+            aliases = current;
+        }
+    }
+
+    private Counters find(int key) {
+        Counters[] current = aliases;
+        return key < current.length ? current[key] : null;
+    }
+
+    /**
+     * Counters of {@code record}. A racing reader may miss counters that were just created; it then
+     * finds them under the lock.
+     */
+    private Counters counters(AliasRecord record) {
+        Counters counters = find(record.key());
+        if (counters != null) {
+            return counters;
+        }
+        synchronized (aliasesLock) {
+            Counters[] current = aliases;
+            if (record.key() >= current.length) {
+                current = Arrays.copyOf(current, Math.max(current.length * 2, Integer.highestOneBit(record.key()) << 1));
+            }
+            counters = current[record.key()];
+            if (counters == null) {
+                counters = new Counters(record.alias());
+                current[record.key()] = counters;
+            }
+            aliases = current;
+            return counters;
+        }
+    }
+
+    public record AliasUsage(String alias, long hits) { }
+
+    private static final class Counters {
+        private final String alias;
+        private final LongAdder hits = new LongAdder();
+
+        private Counters(String alias) {
+            this.alias = alias;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.levyxx.minecraftalias.metrics;
+
+import com.levyxx.minecraftalias.AliasManager;
+import com.levyxx.minecraftalias.AliasManager.AliasRecord;
+
+/**
+ * Standard MBean exposing {@link AliasMetrics} under {@link #OBJECT_NAME}.
+ */
+public final class AliasStats implements AliasStatsMBean {
+    public static final String OBJECT_NAME = "com.levyxx.minecraftalias:type=AliasStats";
+
+    private static final int MOST_USED_LIMIT = 20;
+
+    private final AliasManager aliasManager;
+    private final AliasMetrics metrics;
+
+    public AliasStats(AliasManager aliasManager) {
+        this.aliasManager = aliasManager;
+        this.metrics = aliasManager.metrics();
+    }
+
+    @Override
+    public long getResolvedCount() {
+        return metrics.hitCount();
+    }
+
+    @Override
+    public long getUnresolvedCount() {
+        return metrics.missCount();
+    }
+
+    @Override
+    public long getSkippedCount() {
+        return metrics.skippedCount();
+    }
+
+    @Override
+    public long getResolutionP50Nanos() {
+        return metrics.resolution().percentile(0.5);
+    }
+
+    @Override
+    public long getResolutionP99Nanos() {
+        return metrics.resolution().percentile(0.99);
+    }
+
+    @Override
+    public long getResolutionMaxNanos() {
+        return metrics.resolution().max();
+    }
+
+    @Override
+    public long getListenerP50Nanos() {
+        return metrics.listener().percentile(0.5);
+    }
+
+    @Override
+    public long getListenerP99Nanos() {
+        return metrics.listener().percentile(0.99);
+    }
+
+    @Override
+    public long getListenerMaxNanos() {
+        return metrics.listener().max();
+    }
+
+    @Override
+    public int getAliasCount() {
+        return aliasManager.size();
+    }
+
+    @Override
+    public long getMacroQueueDepth() {
+        return metrics.macroQueueDepth();
+    }
+
+    @Override
+    public int getMacroPeakQueueDepth() {
+        return metrics.macroPeakQueueDepth();
+    }
+
+    @Override
+    public long getMacroDispatchedCount() {
+        return metrics.macroDispatchedCount();
+    }
+
+    @Override
+    public long getMacroRejectedCount() {
+        return metrics.macroRejectedCount();
+    }
+
+    @Override
+    public long getMacroThrottledTicks() {
+        return metrics.macroThrottledTickCount();
+    }
+
+    @Override
+    public long getLimitedCount() {
+        return metrics.limitedCount();
+    }
+
+    @Override
+    public String[] getMostUsedAliases() {
+        return metrics.mostUsed(MOST_USED_LIMIT)
+                .stream()
+                .map(usage -> usage.alias() + "=" + usage.hits())
+                .toArray(String[]::new);
+    }
+
+    @Override
+    public String[] getUnusedAliases() {
+        return metrics.unused(aliasManager.listAliases())
+                .stream()
+                .map(AliasRecord::alias)
+                .toArray(String[]::new);
+    }
+
+    @Override
+    public long hitsOf(String alias) {
+        return aliasManager.getAlias(alias).map(record -> metrics.hits(record)).orElse(0L);
+    }
+}
@@ -0,0 +1,53 @@
+package com.levyxx.minecraftalias.metrics;
+
+/**
+ * JMX view of {@link AliasMetrics}. Latencies are in nanoseconds.
+ */
+public interface AliasStatsMBean {
+    long getResolvedCount();
+
+    long getUnresolvedCount();
+
+    long getSkippedCount();
+
+    long getResolutionP50Nanos();
+
+    long getResolutionP99Nanos();
+
+    long getResolutionMaxNanos();
+
+    long getListenerP50Nanos();
+
+    long getListenerP99Nanos();
+
+    long getListenerMaxNanos();
+
+    int getAliasCount();
+
+    long getMacroQueueDepth();
+
+    int getMacroPeakQueueDepth();
+
+    long getMacroDispatchedCount();
+
+    long getMacroRejectedCount();
+
+    long getMacroThrottledTicks();
+
+    /**
+     * Alias invocations refused by a cooldown or rate limit.
+     */
+    long getLimitedCount();
+
+    /**
+     * Most used aliases as {@code alias=hits}.
+     */
+    String[] getMostUsedAliases();
+
+    /**
+     * Aliases that have not been used since startup.
+     */
+    String[] getUnusedAliases();
+
+    long hitsOf(String alias);
+}
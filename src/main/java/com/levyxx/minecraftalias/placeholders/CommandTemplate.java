@@ -0,0 +1,182 @@
+package com.levyxx.minecraftalias.placeholders;
+
+import com.levyxx.minecraftalias.CommandTokens;
+import org.bukkit.command.CommandSender;
+
+import java.util.Arrays;
+
+/**
+ * Alias command parsed into literal segments and placeholder slots, so dispatching renders it in one pass
+ * instead of searching the command for every known placeholder.
+ * <p>
+ * Besides registered {@code %name%} placeholders, {@code $1}..{@code $99} insert the arguments typed after
+ * the alias and {@code $*} inserts all of them. Arguments taken by a positional slot are not appended
+ * again; a missing argument renders as nothing. Unknown {@code %name%} and stray {@code $} are literal.
+ */
+public final class CommandTemplate {
+    /**
+     * Template of a command without placeholders. Callers use the command text as is.
+     */
+    public static final CommandTemplate LITERAL = new CommandTemplate("", new int[0], new int[0], new Placeholder[0], new int[0], 0);
+
+    private static final int NO_ARGUMENT = 0;
+    private static final int ALL_ARGUMENTS = -1;
+
+    private final String source;
+    private final int[] starts;
+    private final int[] ends;
+    private final Placeholder[] placeholders;
+    private final int[] arguments;
+    private final int argumentsUsed;
+
+    private CommandTemplate(String source, int[] starts, int[] ends, Placeholder[] placeholders, int[] arguments, int argumentsUsed) {
+        this.source = source;
+        this.starts = starts;
+        this.ends = ends;
+        this.placeholders = placeholders;
+        this.arguments = arguments;
+        this.argumentsUsed = argumentsUsed;
+    }
+
+    public static CommandTemplate compile(String command, PlaceholderRegistry registry) {
+        Builder builder = new Builder(command);
+        int literalStart = 0;
+        int i = 0;
+        while (i < command.length()) {
+            char c = command.charAt(i);
+            if (c == '%') {
+                int close = command.indexOf('%', i + 1);
+                Placeholder placeholder = close < 0 ? null : registry.find(command, i + 1, close);
+                if (placeholder != null) {
+                    builder.literal(literalStart, i);
+                    builder.slot(i, close + 1, placeholder, NO_ARGUMENT);
+                    i = close + 1;
+                    literalStart = i;
+                    continue;
+                }
+            } else if (c == '$' && i + 1 < command.length()) {
+                int end = i + 1;
+                int argument;
+                if (command.charAt(end) == '*') {
+                    argument = ALL_ARGUMENTS;
+                    end++;
+                } else {
+                    argument = 0;
+                    while (end < command.length() && end - i <= 2 && isDigit(command.charAt(end))) {
+                        argument = argument * 10 + (command.charAt(end) - '0');
+                        end++;
+                    }
+                }
+                if (argument != NO_ARGUMENT) {
+                    builder.literal(literalStart, i);
+                    builder.slot(i, end, null, argument);
+                    i = end;
+                    literalStart = i;
+                    continue;
+                }
+            }
+            i++;
+        }
+
+        if (builder.count == 0) {
+            return LITERAL;
+        }
+        builder.literal(literalStart, command.length());
+        return builder.build();
+    }
+
+    public boolean isLiteral() {
+        return starts.length == 0;
+    }
+
+    /**
+     * Renders the template for {@code sender} with the arguments {@code input[from..]} into {@code out}
+     * and returns the index of the first argument no slot consumed.
+     */
+    public int render(CommandSender sender, CommandTokens input, int from, StringBuilder out) {
+        int available = input.size() - from;
+        for (int i = 0; i < starts.length; i++) {
+            int argument = arguments[i];
+            if (placeholders[i] != null) {
+                if (!placeholders[i].append(sender, out)) {
+                    out.append(source, starts[i], ends[i]);
+                }
+            } else if (argument == ALL_ARGUMENTS) {
+                input.appendRange(out, from, input.size());
+            } else if (argument != NO_ARGUMENT) {
+                if (argument <= available) {
+                    out.append(input.source(), input.start(from + argument - 1), input.end(from + argument - 1));
+                }
+            } else {
+                // A missing argument renders as nothing; avoid leaving a doubled space in its place.
+                int start = starts[i];
+                if (source.charAt(start) == ' ' && endsWithSpace(out)) {
+                    start++;
+                }
+                out.append(source, start, ends[i]);
+            }
+        }
+        if (endsWithSpace(out)) {
+            out.setLength(out.length() - 1);
+        }
+        return argumentsUsed == ALL_ARGUMENTS ? input.size() : Math.min(input.size(), from + argumentsUsed);
+    }
+
+    private static boolean endsWithSpace(StringBuilder out) {
+        return out.length() > 0 && out.charAt(out.length() - 1) == ' ';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static final class Builder {
+        private final String source;
+        private int[] starts = new int[8];
+        private int[] ends = new int[8];
+        private Placeholder[] placeholders = new Placeholder[8];
+        private int[] arguments = new int[8];
+        private int size;
+        private int count;
+        private int argumentsUsed;
+
+        private Builder(String source) {
+            this.source = source;
+        }
+
+        private void literal(int start, int end) {
+            if (start < end) {
+                add(start, end, null, NO_ARGUMENT);
+            }
+        }
+
+        private void slot(int start, int end, Placeholder placeholder, int argument) {
+            add(start, end, placeholder, argument);
+            count++;
+            if (argument == ALL_ARGUMENTS || argumentsUsed == ALL_ARGUMENTS) {
+                argumentsUsed = ALL_ARGUMENTS;
+            } else {
+                argumentsUsed = Math.max(argumentsUsed, argument);
+            }
+        }
+
+        private void add(int start, int end, Placeholder placeholder, int argument) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+                placeholders = Arrays.copyOf(placeholders, size * 2);
+                arguments = Arrays.copyOf(arguments, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            placeholders[size] = placeholder;
+            arguments[size] = argument;
+            size++;
+        }
+
+        private CommandTemplate build() {
+            return new CommandTemplate(source, Arrays.copyOf(starts, size), Arrays.copyOf(ends, size),
+                    Arrays.copyOf(placeholders, size), Arrays.copyOf(arguments, size), argumentsUsed);
+        }
+    }
+}
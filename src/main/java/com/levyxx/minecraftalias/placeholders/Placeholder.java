@@ -0,0 +1,16 @@
+package com.levyxx.minecraftalias.placeholders;
+
+import org.bukkit.command.CommandSender;
+
+/**
+ * Supplies the value of a {@code %name%} placeholder when an alias is dispatched.
+ */
+@FunctionalInterface
+public interface Placeholder {
+    /**
+     * Appends the value for {@code sender} to {@code out}. Returns false when there is no value for this
+     * sender (for example a player-only placeholder used from the console); the placeholder is then kept
+     * verbatim. {@code sender} is null when a command is resolved without one.
+     */
+    boolean append(CommandSender sender, StringBuilder out);
+}
@@ -0,0 +1,75 @@
+package com.levyxx.minecraftalias.placeholders;
+
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Named {@code %name%} placeholders available to alias commands. Names are case-insensitive.
+ * <p>
+ * Positional placeholders ({@code $1}..{@code $n}, {@code $*}) are built into {@link CommandTemplate}
+ * and cannot be registered.
+ */
+public final class PlaceholderRegistry {
+    private static final Pattern NAME_PATTERN = Pattern.compile("^[a-z0-9_]{1,32}$");
+
+    private final Map<String, Placeholder> placeholders = new ConcurrentHashMap<>();
+
+    /**
+     * Registry with the built-in player placeholders: {@code %player%}, {@code %displayname%},
+     * {@code %uuid%}, {@code %world%}, {@code %x%}, {@code %y%} and {@code %z%}.
+     */
+    public static PlaceholderRegistry defaults() {
+        PlaceholderRegistry registry = new PlaceholderRegistry();
+        registry.register("player", (sender, out) -> sender instanceof Player player && append(out, player.getName()));
+        registry.register("displayname", (sender, out) -> sender instanceof Player player
+                && append(out, ChatColor.stripColor(player.getDisplayName())));
+        registry.register("uuid", (sender, out) -> sender instanceof Player player && append(out, player.getUniqueId().toString()));
+        registry.register("world", (sender, out) -> sender instanceof Player player && append(out, player.getWorld().getName()));
+        registry.register("x", (sender, out) -> sender instanceof Player player && append(out, player.getLocation().getBlockX()));
+        registry.register("y", (sender, out) -> sender instanceof Player player && append(out, player.getLocation().getBlockY()));
+        registry.register("z", (sender, out) -> sender instanceof Player player && append(out, player.getLocation().getBlockZ()));
+        return registry;
+    }
+
+    /**
+     * Registers or replaces a placeholder. Aliases compiled before the call keep their old templates; use
+     * {@code AliasManager#registerPlaceholder} to recompile them.
+     */
+    public void register(String name, Placeholder placeholder) {
+        String key = name.toLowerCase(Locale.ROOT);
+        if (!NAME_PATTERN.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid placeholder name: " + name);
+        }
+        placeholders.put(key, placeholder);
+    }
+
+    public Set<String> names() {
+        return Set.copyOf(placeholders.keySet());
+    }
+
+    /**
+     * Looks up the placeholder named by {@code text[start, end)}, or returns null.
+     */
+    Placeholder find(String text, int start, int end) {
+        if (end - start > 32) {
+            return null;
+        }
+        return placeholders.get(text.substring(start, end).toLowerCase(Locale.ROOT));
+    }
+
+    private static boolean append(StringBuilder out, String value) {
+        out.append(value);
+        return true;
+    }
+
+    private static boolean append(StringBuilder out, int value) {
+        out.append(value);
+        return true;
+    }
+}
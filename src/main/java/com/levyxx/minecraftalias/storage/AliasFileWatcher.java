@@ -0,0 +1,167 @@
+package com.levyxx.minecraftalias.storage;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Reports alias files changed outside the plugin, e.g. by a deployment that pushes config.yml. Changes
+ * are debounced per file: a file is reported once it has been quiet for the debounce delay, so an editor
+ * that saves in several writes causes a single report. Files whose content is what the plugin itself
+ * last wrote are not reported.
+ * <p>
+ * Changes are passed to the listener in batches on the watcher's own thread.
+ */
+public final class AliasFileWatcher {
+    private final Collection<Path> directories;
+    private final Predicate<Path> relevant;
+    private final long debounceNanos;
+    private final Logger logger;
+    private final Consumer<Set<Path>> listener;
+    private WatchService watchService;
+    private Thread thread;
+
+    /**
+     * @param directories folders to watch, created when missing; subfolders are not watched
+     * @param relevant    selects the files in those folders that hold aliases
+     */
+    public AliasFileWatcher(Collection<Path> directories, Predicate<Path> relevant, long debounceMillis, Logger logger,
+                            Consumer<Set<Path>> listener) {
+        this.directories = directories;
+        this.relevant = relevant;
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, debounceMillis));
+        this.logger = logger;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts watching. Returns false when the file system cannot be watched.
+     */
+    public boolean start() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            for (Path directory : directories) {
+                Files.createDirectories(directory);
+                directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.log(Level.WARNING, "Alias files cannot be watched; use /alias reload after editing them.", e);
+            close();
+            return false;
+        }
+
+        thread = new Thread(this::run, "MinecraftAlias-Watcher");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to close the alias file watcher.", e);
+            }
+        }
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    private void run() {
+        Map<Path, Long> due = new HashMap<>();
+        try {
+            while (true) {
+                WatchKey key = due.isEmpty()
+                        ? watchService.take()
+                        : watchService.poll(Math.max(0L, nextDue(due) - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (key != null) {
+                    collect(key, due);
+                }
+                report(due);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed with the plugin.
+        }
+    }
+
+    private void collect(WatchKey key, Map<Path, Long> due) {
+        Path directory = (Path) key.watchable();
+        long deadline = System.nanoTime() + debounceNanos;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                try (Stream<Path> files = Files.list(directory)) {
+                    files.filter(relevant).forEach(file -> due.put(file, deadline));
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Failed to list " + directory + " after missed file events.", e);
+                }
+                continue;
+            }
+            Path file = directory.resolve((Path) event.context());
+            if (relevant.test(file)) {
+                due.put(file, deadline);
+            }
+        }
+        key.reset();
+    }
+
+    private void report(Map<Path, Long> due) {
+        long now = System.nanoTime();
+        Set<Path> changed = new LinkedHashSet<>();
+        for (Iterator<Map.Entry<Path, Long>> it = due.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Path, Long> entry = it.next();
+            if (entry.getValue() - now > 0L) {
+                continue;
+            }
+            it.remove();
+            if (!isOwnWrite(entry.getKey())) {
+                changed.add(entry.getKey());
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        try {
+            listener.accept(changed);
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Failed to reload changed alias files " + changed, e);
+        }
+    }
+
+    private boolean isOwnWrite(Path file) {
+        try {
+            return StorageFiles.isLastWrite(file);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static long nextDue(Map<Path, Long> due) {
+        long next = Long.MAX_VALUE;
+        for (long deadline : due.values()) {
+            next = Math.min(next, deadline);
+        }
+        return next;
+    }
+}
@@ -0,0 +1,39 @@
+package com.levyxx.minecraftalias.storage;
+
+import com.levyxx.minecraftalias.AliasManager.AliasRecord;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Backend that persists the alias table. Mutation callbacks are invoked in commit order while the
+ * manager's write lock is held, so implementations must only enqueue work and never block on I/O.
+ */
+public interface AliasStorage {
+    /**
+     * Reads the stored aliases. Unless the result is marked as validated, validation is left to the caller.
+     */
+    StoredAliases load() throws IOException;
+
+    /**
+     * Called after the manager has built a table from {@link #load()}.
+     */
+    default void loaded(Collection<AliasRecord> table) {
+    }
+
+    void aliasAdded(AliasRecord record, Collection<AliasRecord> table);
+
+    void aliasRemoved(AliasRecord record, Collection<AliasRecord> table);
+
+    /**
+     * Schedules a full write of {@code table}.
+     */
+    void save(Collection<AliasRecord> table);
+
+    /**
+     * Blocks until every scheduled write has reached the disk.
+     */
+    void flush();
+
+    void close();
+}
@@ -0,0 +1,236 @@
+package com.levyxx.minecraftalias.storage;
+
+import com.levyxx.minecraftalias.AliasManager.AliasRecord;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Keeps a precompiled binary copy of the alias table next to config.yml and loads it with a single read,
+ * so startup skips YAML parsing and per-key validation. Tokens are interned into a table and records
+ * refer to them by index; records are stored already validated and in table order.
+ * <p>
+ * The snapshot records the CRC32 of the config file it was derived from. When the config has been edited
+ * since, or the snapshot is damaged, loading falls back to the wrapped storage and a fresh snapshot is
+ * written once the table has been rebuilt. The snapshot is also rewritten on close, after the wrapped
+ * storage has flushed.
+ */
+public final class BinarySnapshotStorage implements AliasStorage {
+    private static final String SNAPSHOT_FILE = "aliases.bin";
+    private static final int MAGIC = 0x4D414C53;
+    private static final int VERSION = 1;
+
+    private final AliasStorage delegate;
+    private final Path sourceFile;
+    private final Path snapshotFile;
+    private final Logger logger;
+    private final ScheduledExecutorService executor = StorageFiles.newWriter("SnapshotWriter");
+    private volatile Collection<AliasRecord> latest = List.of();
+    private volatile boolean stale = true;
+
+    public BinarySnapshotStorage(AliasStorage delegate, Path sourceFile, Logger logger) {
+        this.delegate = delegate;
+        this.sourceFile = sourceFile;
+        this.snapshotFile = sourceFile.resolveSibling(SNAPSHOT_FILE);
+        this.logger = logger;
+    }
+
+    @Override
+    public StoredAliases load() throws IOException {
+        try {
+            Map<String, String> entries = readSnapshot();
+            if (entries != null) {
+                stale = false;
+                return new StoredAliases(entries, true);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Ignoring unreadable alias snapshot " + snapshotFile, e);
+        }
+
+        stale = true;
+        return delegate.load();
+    }
+
+    @Override
+    public void loaded(Collection<AliasRecord> table) {
+        latest = table;
+        delegate.loaded(table);
+        if (stale) {
+            executor.execute(this::writeQuietly);
+        }
+    }
+
+    @Override
+    public void aliasAdded(AliasRecord record, Collection<AliasRecord> table) {
+        latest = table;
+        delegate.aliasAdded(record, table);
+    }
+
+    @Override
+    public void aliasRemoved(AliasRecord record, Collection<AliasRecord> table) {
+        latest = table;
+        delegate.aliasRemoved(record, table);
+    }
+
+    @Override
+    public void save(Collection<AliasRecord> table) {
+        latest = table;
+        delegate.save(table);
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+        executor.execute(this::writeQuietly);
+        StorageFiles.shutdown(executor, logger);
+    }
+
+    /**
+     * Returns the stored entries, or null when there is no snapshot or it does not match the config file.
+     */
+    private Map<String, String> readSnapshot() throws IOException {
+        if (!Files.isRegularFile(snapshotFile) || !Files.isRegularFile(sourceFile)) {
+            return null;
+        }
+
+        // Read onto the heap rather than mapped: a mapping outlives the channel until it is collected,
+        // and on Windows it keeps the file from being replaced by the next snapshot.
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshotFile));
+        if (buffer.remaining() < Integer.BYTES * 5 + Long.BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return null;
+        }
+
+        CRC32 payloadChecksum = new CRC32();
+        ByteBuffer payload = buffer.duplicate().position(0).limit(buffer.capacity() - Integer.BYTES);
+        payloadChecksum.update(payload);
+        if ((int) payloadChecksum.getValue() != buffer.getInt(buffer.capacity() - Integer.BYTES)) {
+            logger.warning("Alias snapshot checksum mismatch; loading from config.yml.");
+            return null;
+        }
+        if (buffer.getLong() != checksum(sourceFile)) {
+            return null;
+        }
+
+        String[] tokens = new String[buffer.getInt()];
+        int recordCount = buffer.getInt();
+        for (int i = 0; i < tokens.length; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            tokens[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        Map<String, String> entries = new LinkedHashMap<>(Math.max(16, recordCount * 4 / 3 + 1));
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < recordCount; i++) {
+            String alias = readJoined(buffer, tokens, builder);
+            String command = readJoined(buffer, tokens, builder);
+            entries.put(alias, command);
+        }
+        return entries;
+    }
+
+    private static String readJoined(ByteBuffer buffer, String[] tokens, StringBuilder builder) {
+        builder.setLength(0);
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            builder.append(tokens[buffer.getInt()]);
+        }
+        return builder.toString();
+    }
+
+    private void writeQuietly() {
+        try {
+            write(latest);
+            stale = false;
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Failed to write alias snapshot " + snapshotFile, e);
+        }
+    }
+
+    private void write(Collection<AliasRecord> table) throws IOException {
+        if (!Files.isRegularFile(sourceFile)) {
+            return;
+        }
+
+        Map<String, Integer> tokenIds = new HashMap<>();
+        List<String> tokens = new ArrayList<>();
+        List<int[]> encoded = new ArrayList<>(table.size() * 2);
+        for (AliasRecord record : table) {
+            encoded.add(intern(record.aliasTokens(), tokenIds, tokens));
+            encoded.add(intern(List.of(record.command().split(" ")), tokenIds, tokens));
+        }
+
+        Path temp = StorageFiles.tempSibling(snapshotFile);
+        CRC32 payloadChecksum = new CRC32();
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(temp))) {
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(file, payloadChecksum));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(checksum(sourceFile));
+            out.writeInt(tokens.size());
+            out.writeInt(encoded.size() / 2);
+            for (String token : tokens) {
+                byte[] bytes = token.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            for (int[] ids : encoded) {
+                out.writeInt(ids.length);
+                for (int id : ids) {
+                    out.writeInt(id);
+                }
+            }
+            out.flush();
+            new DataOutputStream(file).writeInt((int) payloadChecksum.getValue());
+        }
+        StorageFiles.replace(temp, snapshotFile);
+    }
+
+    private static int[] intern(List<String> values, Map<String, Integer> tokenIds, List<String> tokens) {
+        int[] ids = new int[values.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = tokenIds.computeIfAbsent(values.get(i), token -> {
+                tokens.add(token);
+                return tokens.size() - 1;
+            });
+        }
+        return ids;
+    }
+
+    private static long checksum(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] chunk = new byte[8192];
+            for (int read = in.read(chunk); read >= 0; read = in.read(chunk)) {
+                crc.update(chunk, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,354 @@
+package com.levyxx.minecraftalias.storage;
+
+import com.levyxx.minecraftalias.AliasManager.AliasRecord;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stores aliases as a compacted snapshot plus an append-only journal of add/remove operations, so each
+ * mutation costs a single appended line. Once the journal outgrows the table it is folded into a new
+ * snapshot in the background.
+ * <p>
+ * Both files start with a generation header. A journal whose generation does not match the snapshot
+ * predates the last compaction and is ignored, which keeps a crash between writing the snapshot and
+ * truncating the journal from replaying stale operations.
+ * <p>
+ * All file state is confined to the writer thread. Closing folds the journal into a last snapshot on
+ * that thread, after which nothing is compacted or appended.
+ */
+public final class JournalAliasStorage implements AliasStorage {
+    private static final String SNAPSHOT_FILE = "aliases.snapshot";
+    private static final String JOURNAL_FILE = "aliases.journal";
+    private static final String GENERATION_HEADER = "#generation ";
+    private static final char ADD = '+';
+    private static final char REMOVE = '-';
+    private static final char SEPARATOR = '\t';
+
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final Logger logger;
+    private final AliasStorage seed;
+    private final int compactThreshold;
+    private final ScheduledExecutorService executor = StorageFiles.newWriter("JournalWriter");
+    /**
+     * The table as of the last mutation or load; null until the manager has built one, so a compaction
+     * never writes a table it does not know.
+     */
+    private volatile Collection<AliasRecord> latest;
+    private volatile boolean closed;
+
+    private long generation;
+    private int journalEntries;
+    private BufferedWriter journal;
+    private boolean compactionScheduled;
+
+    /**
+     * @param seed storage imported into a fresh journal when neither journal file exists yet
+     */
+    public JournalAliasStorage(File dataFolder, Logger logger, AliasStorage seed, int compactThreshold) {
+        this.snapshotFile = dataFolder.toPath().resolve(SNAPSHOT_FILE);
+        this.journalFile = dataFolder.toPath().resolve(JOURNAL_FILE);
+        this.logger = logger;
+        this.seed = seed;
+        this.compactThreshold = Math.max(1, compactThreshold);
+    }
+
+    @Override
+    public StoredAliases load() throws IOException {
+        try {
+            return executor.submit(this::loadOnWriter).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading the alias journal", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Also called after a reload, so the next compaction writes the reloaded table.
+     */
+    @Override
+    public void loaded(Collection<AliasRecord> table) {
+        latest = table;
+    }
+
+    @Override
+    public void aliasAdded(AliasRecord record, Collection<AliasRecord> table) {
+        latest = table;
+        String line = ADD + "" + SEPARATOR + record.alias() + SEPARATOR + record.command();
+        executor.execute(() -> append(line));
+    }
+
+    @Override
+    public void aliasRemoved(AliasRecord record, Collection<AliasRecord> table) {
+        latest = table;
+        String line = REMOVE + "" + SEPARATOR + record.alias();
+        executor.execute(() -> append(line));
+    }
+
+    @Override
+    public void save(Collection<AliasRecord> table) {
+        latest = table;
+        scheduleCompaction();
+    }
+
+    @Override
+    public void flush() {
+        try {
+            executor.submit(() -> {
+                if (journal != null) {
+                    journal.flush();
+                }
+                return null;
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.log(Level.SEVERE, "Failed to flush the alias journal", e.getCause());
+        }
+    }
+
+    /**
+     * Stops further compactions, folds the journal into a last snapshot when it holds operations, and
+     * closes it, waiting for all of that to finish.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            executor.submit(() -> {
+                if (journalEntries > 0 && latest != null) {
+                    compactNow();
+                }
+                closeJournal();
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.log(Level.SEVERE, "Failed to close the alias journal", e.getCause());
+        }
+        StorageFiles.shutdown(executor, logger);
+    }
+
+    private StoredAliases loadOnWriter() throws IOException {
+        closeJournal();
+        if (!Files.exists(snapshotFile) && !Files.exists(journalFile)) {
+            Map<String, String> imported = seed.load().entries();
+            writeSnapshot(1L, imported);
+            logger.info(() -> String.format("Imported %d alias(es) into the alias journal.", imported.size()));
+        }
+
+        Map<String, String[]> entries = new LinkedHashMap<>();
+        generation = readSnapshot(entries);
+        journalEntries = replayJournal(entries, generation);
+
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String[] entry : entries.values()) {
+            result.put(entry[0], entry[1]);
+        }
+        return StoredAliases.unvalidated(result);
+    }
+
+    private long readSnapshot(Map<String, String[]> entries) throws IOException {
+        if (!Files.exists(snapshotFile)) {
+            return 0L;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(snapshotFile, StandardCharsets.UTF_8)) {
+            long snapshotGeneration = parseGeneration(reader.readLine());
+            String line;
+            while ((line = reader.readLine()) != null) {
+                applyLine(entries, line);
+            }
+            return snapshotGeneration;
+        }
+    }
+
+    /**
+     * Applies the journal to {@code entries} and returns the number of replayed operations, or -1 when
+     * the journal belongs to another generation and must be recreated before the next append.
+     */
+    private int replayJournal(Map<String, String[]> entries, long expectedGeneration) throws IOException {
+        if (!Files.exists(journalFile)) {
+            return -1;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)) {
+            if (parseGeneration(reader.readLine()) != expectedGeneration) {
+                logger.warning("Ignoring alias journal from an older generation.");
+                return -1;
+            }
+
+            int replayed = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (applyLine(entries, line)) {
+                    replayed++;
+                }
+            }
+            return replayed;
+        }
+    }
+
+    private boolean applyLine(Map<String, String[]> entries, String line) {
+        if (line.length() < 3 || line.charAt(1) != SEPARATOR) {
+            return false;
+        }
+
+        String payload = line.substring(2);
+        if (line.charAt(0) == ADD) {
+            int separator = payload.indexOf(SEPARATOR);
+            if (separator <= 0) {
+                return false;
+            }
+            String alias = payload.substring(0, separator);
+            entries.put(alias.toLowerCase(Locale.ROOT), new String[] {alias, payload.substring(separator + 1)});
+            return true;
+        }
+        if (line.charAt(0) == REMOVE) {
+            entries.remove(payload.toLowerCase(Locale.ROOT));
+            return true;
+        }
+        return false;
+    }
+
+    private static long parseGeneration(String header) throws IOException {
+        if (header == null || !header.startsWith(GENERATION_HEADER)) {
+            throw new IOException("Missing generation header in alias storage file");
+        }
+        try {
+            return Long.parseLong(header.substring(GENERATION_HEADER.length()).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed generation header: " + header, e);
+        }
+    }
+
+    private void append(String line) {
+        try {
+            if (journal == null) {
+                openJournal();
+            }
+            journal.write(line);
+            journal.newLine();
+            journal.flush();
+            journalEntries++;
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to append to the alias journal", e);
+            return;
+        }
+
+        Collection<AliasRecord> table = latest;
+        if (table != null && journalEntries >= Math.max(compactThreshold, table.size())) {
+            scheduleCompaction();
+        }
+    }
+
+    private void openJournal() throws IOException {
+        Files.createDirectories(journalFile.getParent());
+        if (journalEntries < 0 || !Files.exists(journalFile)) {
+            journal = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            journal.write(GENERATION_HEADER + generation);
+            journal.newLine();
+            journalEntries = 0;
+        } else {
+            journal = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+        }
+    }
+
+    /**
+     * Queues a compaction unless one is already queued. Does nothing once closing has begun, as
+     * {@link #close()} compacts for the last time itself.
+     */
+    private void scheduleCompaction() {
+        if (closed) {
+            return;
+        }
+        executor.execute(() -> {
+            if (compactionScheduled || closed) {
+                return;
+            }
+            compactionScheduled = true;
+            executor.execute(this::compact);
+        });
+    }
+
+    private void compact() {
+        compactionScheduled = false;
+        if (!closed && latest != null) {
+            compactNow();
+        }
+    }
+
+    /**
+     * Folds the journal into a new snapshot generation. The snapshot may already contain operations that
+     * are still queued behind this task; replaying those on top of it is harmless because every operation
+     * sets an alias to a definite state.
+     */
+    private void compactNow() {
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (AliasRecord record : latest) {
+            entries.put(record.alias(), record.command());
+        }
+
+        try {
+            closeJournal();
+            writeSnapshot(generation + 1, entries);
+            generation++;
+            journalEntries = -1;
+            openJournal();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to compact the alias journal", e);
+        }
+    }
+
+    private void writeSnapshot(long snapshotGeneration, Map<String, String> entries) throws IOException {
+        Files.createDirectories(snapshotFile.getParent());
+        Path temp = StorageFiles.tempSibling(snapshotFile);
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(GENERATION_HEADER + snapshotGeneration);
+            writer.newLine();
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                writer.write(ADD);
+                writer.write(SEPARATOR);
+                writer.write(entry.getKey());
+                writer.write(SEPARATOR);
+                writer.write(entry.getValue());
+                writer.newLine();
+            }
+        }
+        StorageFiles.replace(temp, snapshotFile);
+    }
+
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to close the alias journal", e);
+        }
+        journal = null;
+    }
+}
@@ -0,0 +1,213 @@
+package com.levyxx.minecraftalias.storage;
+
+import com.levyxx.minecraftalias.AliasManager.AliasRecord;
+import com.levyxx.minecraftalias.AliasScope;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stores group and player alias layers, one YAML file per layer: {@code groups/<group>.yml} and
+ * {@code players/<uuid>.yml} below the scope directory, each with an {@code aliases} section like
+ * config.yml. Writes are deferred and coalesced per layer on a single shared writer thread, and a layer
+ * that becomes empty has its file deleted.
+ */
+public final class ScopedAliasStorage {
+    private static final String GROUPS = "groups";
+    private static final String PLAYERS = "players";
+    private static final String EXTENSION = ".yml";
+
+    private final Path directory;
+    private final Logger logger;
+    private final long delayMillis;
+    private final Map<AliasScope, Collection<AliasRecord>> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor = StorageFiles.newWriter("ScopeWriter");
+
+    public ScopedAliasStorage(Path directory, Logger logger, long delayMillis) {
+        this.directory = directory;
+        this.logger = logger;
+        this.delayMillis = Math.max(0L, delayMillis);
+    }
+
+    /**
+     * Reads every stored layer. Files whose name is not a valid group name or player UUID are skipped
+     * with a warning; a file that does not parse fails the whole load, so its layer is not taken as
+     * removed.
+     */
+    public Map<AliasScope, Map<String, String>> load() throws IOException {
+        Map<AliasScope, Map<String, String>> layers = new LinkedHashMap<>();
+        for (Path file : files(GROUPS)) {
+            Optional<AliasScope> scope = AliasScope.group(baseName(file));
+            if (scope.isPresent()) {
+                layers.put(scope.get(), read(file));
+            } else {
+                logger.warning(() -> "Ignoring alias file with an invalid group name: " + file);
+            }
+        }
+        for (Path file : files(PLAYERS)) {
+            try {
+                layers.put(AliasScope.player(UUID.fromString(baseName(file))), read(file));
+            } catch (IllegalArgumentException e) {
+                logger.warning(() -> "Ignoring alias file that is not named after a player UUID: " + file);
+            }
+        }
+        return layers;
+    }
+
+    /**
+     * Reads the stored layer of {@code scope}; empty when it has no file.
+     */
+    public Map<String, String> load(AliasScope scope) throws IOException {
+        return read(fileOf(scope));
+    }
+
+    /**
+     * The scope whose layer is stored in {@code file}, if it is one of the layer files.
+     */
+    public Optional<AliasScope> scopeOf(Path file) {
+        Path folder = file.getParent();
+        String name = file.getFileName().toString();
+        if (folder == null || !name.endsWith(EXTENSION) || !directory.equals(folder.getParent())) {
+            return Optional.empty();
+        }
+        String base = baseName(file);
+        if (folder.getFileName().toString().equals(GROUPS)) {
+            return AliasScope.group(base).filter(scope -> scope.name().equals(base));
+        }
+        if (!folder.getFileName().toString().equals(PLAYERS)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(AliasScope.player(UUID.fromString(base)));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Folders holding the layer files.
+     */
+    public List<Path> directories() {
+        return List.of(directory.resolve(GROUPS), directory.resolve(PLAYERS));
+    }
+
+    /**
+     * Replaces the pending write of {@code scope}, if any, after the layer was reloaded from disk, so the
+     * write does not bring back what the file held before.
+     */
+    public void loaded(AliasScope scope, Collection<AliasRecord> records) {
+        pending.computeIfPresent(scope, (key, stale) -> records);
+    }
+
+    /**
+     * Schedules a write of {@code records} as the whole layer of {@code scope}.
+     */
+    public void save(AliasScope scope, Collection<AliasRecord> records) {
+        if (pending.put(scope, records) == null) {
+            executor.schedule(() -> writeIfPending(scope), delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Blocks until every scheduled write has reached the disk.
+     */
+    public void flush() {
+        try {
+            executor.submit(() -> {
+                for (AliasScope scope : pending.keySet()) {
+                    writeIfPending(scope);
+                }
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.log(Level.SEVERE, "Failed to flush scoped aliases", e.getCause());
+        }
+    }
+
+    public void close() {
+        flush();
+        StorageFiles.shutdown(executor, logger);
+    }
+
+    private void writeIfPending(AliasScope scope) {
+        Collection<AliasRecord> records = pending.remove(scope);
+        if (records == null) {
+            return;
+        }
+
+        Path file = fileOf(scope);
+        try {
+            if (records.isEmpty()) {
+                StorageFiles.delete(file);
+                return;
+            }
+
+            YamlConfiguration config = new YamlConfiguration();
+            config.createSection("aliases");
+            for (AliasRecord record : records) {
+                config.set("aliases." + record.alias(), record.command());
+            }
+            StorageFiles.write(file, config.saveToString());
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.SEVERE, "Failed to save aliases to " + file, e);
+        }
+    }
+
+    private Path fileOf(AliasScope scope) {
+        return switch (scope.kind()) {
+            case GROUP -> directory.resolve(GROUPS).resolve(scope.name() + EXTENSION);
+            case PLAYER -> directory.resolve(PLAYERS).resolve(scope.name() + EXTENSION);
+            case GLOBAL -> throw new IllegalArgumentException("Global aliases are not stored per scope");
+        };
+    }
+
+    private Collection<Path> files(String kind) throws IOException {
+        Path folder = directory.resolve(kind);
+        Collection<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(folder)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder, "*" + EXTENSION)) {
+            stream.forEach(files::add);
+        }
+        return files;
+    }
+
+    private static String baseName(Path file) {
+        String name = file.getFileName().toString();
+        return name.substring(0, name.length() - EXTENSION.length());
+    }
+
+    private static Map<String, String> read(Path file) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        ConfigurationSection section = StorageFiles.readYaml(file).getConfigurationSection("aliases");
+        if (section == null) {
+            return entries;
+        }
+        for (String key : section.getKeys(false)) {
+            String value = section.getString(key);
+            if (value != null) {
+                entries.put(key, value);
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,131 @@
+package com.levyxx.minecraftalias.storage;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+final class StorageFiles {
+    private static final long DELETED = -1L;
+
+    /**
+     * Checksum of the content each file was last given by {@link #write(Path, String)}, or
+     * {@link #DELETED}, so file watchers can tell the plugin's own writes from outside edits.
+     */
+    private static final Map<Path, Long> LAST_WRITES = new ConcurrentHashMap<>();
+
+    private StorageFiles() {
+    }
+
+    /**
+     * Single writer thread. Delayed tasks still queued at shutdown are dropped; callers flush first.
+     */
+    static ScheduledExecutorService newWriter(String name) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "MinecraftAlias-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        return executor;
+    }
+
+    static void shutdown(ExecutorService executor, Logger logger) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warning("Alias storage writer did not stop in time.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Parses {@code file}, or returns an empty configuration when it does not exist. Unlike
+     * {@link YamlConfiguration#loadConfiguration}, a file that does not parse is an error rather than an
+     * empty configuration, so a half-saved edit is never read as every alias having been removed.
+     */
+    static YamlConfiguration readYaml(Path file) throws IOException {
+        YamlConfiguration config = new YamlConfiguration();
+        if (!Files.exists(file)) {
+            return config;
+        }
+        try {
+            config.load(file.toFile());
+        } catch (InvalidConfigurationException e) {
+            throw new IOException("Invalid YAML in " + file + ": " + e.getMessage(), e);
+        }
+        return config;
+    }
+
+    static Path tempSibling(Path target) {
+        return target.resolveSibling(target.getFileName() + ".tmp");
+    }
+
+    /**
+     * Replaces {@code target} with {@code content} through a temporary sibling and remembers what was
+     * written for {@link #isLastWrite(Path)}.
+     */
+    static void write(Path target, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        Path temp = tempSibling(target);
+        Files.write(temp, bytes);
+        LAST_WRITES.put(key(target), checksum(bytes));
+        replace(temp, target);
+    }
+
+    static void delete(Path target) throws IOException {
+        LAST_WRITES.put(key(target), DELETED);
+        Files.deleteIfExists(target);
+    }
+
+    /**
+     * Whether {@code file} is exactly as this process last wrote or deleted it.
+     */
+    static boolean isLastWrite(Path file) throws IOException {
+        Long last = LAST_WRITES.get(key(file));
+        if (last == null) {
+            return false;
+        }
+        if (!Files.exists(file)) {
+            return last == DELETED;
+        }
+        return last == checksum(Files.readAllBytes(file));
+    }
+
+    private static Path key(Path file) {
+        return file.toAbsolutePath().normalize();
+    }
+
+    private static long checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    /**
+     * Moves {@code temp} over {@code target}, atomically where the file system allows it.
+     */
+    static void replace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.levyxx.minecraftalias.storage;
+
+import java.util.Map;
+
+/**
+ * Raw alias to command entries read from a storage backend.
+ *
+ * @param validated true when the entries were validated before they were stored, so every alias is
+ *                  already well-formed, whitespace-normalized and unique ignoring case
+ */
+public record StoredAliases(Map<String, String> entries, boolean validated) {
+    public static StoredAliases unvalidated(Map<String, String> entries) {
+        return new StoredAliases(entries, false);
+    }
+}
@@ -0,0 +1,130 @@
+package com.levyxx.minecraftalias.storage;
+
+import com.levyxx.minecraftalias.AliasManager.AliasRecord;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stores aliases in the {@code aliases} section of config.yml with write-behind persistence. Save
+ * requests only mark the table dirty; a background thread writes the latest snapshot once the burst has
+ * settled, replacing the file through a temporary copy so readers never observe a partial write.
+ * <p>
+ * Only the {@code aliases} section is rewritten; other keys are taken from the file on disk. The in-memory
+ * plugin config is not updated, so nothing else may call {@code saveConfig()}.
+ */
+public final class YamlAliasStorage implements AliasStorage {
+    private final Path configFile;
+    private final Logger logger;
+    private final long delayMillis;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final ScheduledExecutorService executor = StorageFiles.newWriter("YamlWriter");
+    private volatile Collection<AliasRecord> latest = List.of();
+
+    public YamlAliasStorage(File configFile, Logger logger, long delayMillis) {
+        this.configFile = configFile.toPath();
+        this.logger = logger;
+        this.delayMillis = Math.max(0L, delayMillis);
+    }
+
+    @Override
+    public StoredAliases load() throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        YamlConfiguration config = StorageFiles.readYaml(configFile);
+        ConfigurationSection section = config.getConfigurationSection("aliases");
+        if (section == null) {
+            return StoredAliases.unvalidated(entries);
+        }
+
+        for (String key : section.getKeys(false)) {
+            String value = section.getString(key);
+            if (value != null) {
+                entries.put(key, value);
+            }
+        }
+        return StoredAliases.unvalidated(entries);
+    }
+
+    /**
+     * Also called after a reload, so a write still pending from before it stores the reloaded table.
+     */
+    @Override
+    public void loaded(Collection<AliasRecord> table) {
+        latest = table;
+    }
+
+    @Override
+    public void aliasAdded(AliasRecord record, Collection<AliasRecord> table) {
+        save(table);
+    }
+
+    @Override
+    public void aliasRemoved(AliasRecord record, Collection<AliasRecord> table) {
+        save(table);
+    }
+
+    @Override
+    public void save(Collection<AliasRecord> table) {
+        latest = table;
+        if (dirty.compareAndSet(false, true)) {
+            executor.schedule(this::writeIfDirty, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            executor.submit(this::writeIfDirty).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.log(Level.SEVERE, "Failed to flush aliases", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        StorageFiles.shutdown(executor, logger);
+    }
+
+    /**
+     * Writes {@code table} synchronously. Used to export the table while another backend is active.
+     * Fails without touching the file when it does not parse, as its other settings could not be kept.
+     */
+    public void write(Collection<AliasRecord> table) throws IOException {
+        YamlConfiguration config = StorageFiles.readYaml(configFile);
+        config.set("aliases", null);
+        config.createSection("aliases");
+        for (AliasRecord record : table) {
+            config.set("aliases." + record.alias(), record.command());
+        }
+
+        StorageFiles.write(configFile, config.saveToString());
+    }
+
+    private void writeIfDirty() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+
+        try {
+            write(latest);
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.SEVERE, "Failed to save aliases to " + configFile, e);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.levyxx.minecraftalias.transfer;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.levyxx.minecraftalias.AliasManager.AliasRecord;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * File formats accepted by {@code /alias import} and written by {@code /alias export}, chosen by file
+ * extension. CSV and JSON lines files are read line by line.
+ * <ul>
+ *     <li>YAML ({@code .yml}, {@code .yaml}): {@code alias: command} pairs, optionally under {@code aliases:}</li>
+ *     <li>CSV ({@code .csv}): {@code alias,command} rows with an optional header and {@code "} quoting</li>
+ *     <li>JSON lines ({@code .jsonl}, {@code .ndjson}): one {@code {"alias": ..., "command": ...}} per line</li>
+ * </ul>
+ */
+public enum AliasFileFormat {
+    YAML {
+        @Override
+        public ParsedAliases read(Path file) throws IOException {
+            YamlConfiguration config = new YamlConfiguration();
+            try {
+                config.loadFromString(Files.readString(file, StandardCharsets.UTF_8));
+            } catch (InvalidConfigurationException e) {
+                throw new IOException("Invalid YAML in " + file + ": " + e.getMessage(), e);
+            }
+
+            ConfigurationSection section = config.isConfigurationSection("aliases") ? config.getConfigurationSection("aliases") : config;
+            List<Map.Entry<String, String>> entries = new ArrayList<>();
+            List<String> errors = new ArrayList<>();
+            for (String key : section.getKeys(false)) {
+                String command = section.isConfigurationSection(key) ? null : section.getString(key);
+                if (command == null) {
+                    errors.add(key);
+                } else {
+                    entries.add(Map.entry(key, command));
+                }
+            }
+            return new ParsedAliases(entries, errors);
+        }
+
+        @Override
+        public void write(Path file, List<AliasRecord> records) throws IOException {
+            YamlConfiguration config = new YamlConfiguration();
+            config.createSection("aliases");
+            for (AliasRecord record : records) {
+                config.set("aliases." + record.alias(), record.command());
+            }
+            Files.writeString(file, config.saveToString(), StandardCharsets.UTF_8);
+        }
+    },
+    CSV {
+        @Override
+        ParsedLine parseLine(String line) {
+            List<String> fields = new ArrayList<>(2);
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+
+            if (quoted || fields.size() != 2) {
+                return null;
+            }
+            if ("alias".equalsIgnoreCase(fields.get(0).trim()) && "command".equalsIgnoreCase(fields.get(1).trim())) {
+                return ParsedLine.SKIP;
+            }
+            return new ParsedLine(Map.entry(fields.get(0), fields.get(1)));
+        }
+
+        @Override
+        String formatLine(AliasRecord record) {
+            return quote(record.alias()) + "," + quote(record.command());
+        }
+
+        @Override
+        String header() {
+            return "alias,command";
+        }
+
+        private static String quote(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    },
+    JSON_LINES {
+        @Override
+        ParsedLine parseLine(String line) {
+            try {
+                JsonElement element = JsonParser.parseString(line);
+                if (!element.isJsonObject()) {
+                    return null;
+                }
+                JsonObject object = element.getAsJsonObject();
+                JsonElement alias = object.get("alias");
+                JsonElement command = object.get("command");
+                if (alias == null || command == null || !alias.isJsonPrimitive() || !command.isJsonPrimitive()) {
+                    return null;
+                }
+                return new ParsedLine(Map.entry(alias.getAsString(), command.getAsString()));
+            } catch (JsonParseException | IllegalStateException e) {
+                return null;
+            }
+        }
+
+        @Override
+        String formatLine(AliasRecord record) {
+            JsonObject object = new JsonObject();
+            object.addProperty("alias", record.alias());
+            object.addProperty("command", record.command());
+            return object.toString();
+        }
+    };
+
+    public static Optional<AliasFileFormat> forFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".yml") || name.endsWith(".yaml")) {
+            return Optional.of(YAML);
+        }
+        if (name.endsWith(".csv")) {
+            return Optional.of(CSV);
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return Optional.of(JSON_LINES);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Reads (alias, command) entries in file order. Entries that cannot be parsed are reported by line
+     * number (or key for YAML) instead of failing the whole file.
+     */
+    public ParsedAliases read(Path file) throws IOException {
+        List<Map.Entry<String, String>> entries = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                if (line.isBlank() || line.stripLeading().startsWith("#")) {
+                    continue;
+                }
+                ParsedLine parsed = parseLine(line);
+                if (parsed == null) {
+                    errors.add("line " + number);
+                } else if (parsed.entry() != null) {
+                    entries.add(parsed.entry());
+                }
+            }
+        }
+        return new ParsedAliases(entries, errors);
+    }
+
+    public void write(Path file, List<AliasRecord> records) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            String header = header();
+            if (header != null) {
+                writer.write(header);
+                writer.newLine();
+            }
+            for (AliasRecord record : records) {
+                writer.write(formatLine(record));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Parses one non-blank, non-comment line; null when it is malformed.
+     */
+    ParsedLine parseLine(String line) {
+        throw new UnsupportedOperationException(name() + " is not line based");
+    }
+
+    String formatLine(AliasRecord record) {
+        throw new UnsupportedOperationException(name() + " is not line based");
+    }
+
+    String header() {
+        return null;
+    }
+
+    /**
+     * Entries read from an import file, plus the locations of entries that could not be parsed.
+     */
+    public record ParsedAliases(List<Map.Entry<String, String>> entries, List<String> errors) { }
+
+    /**
+     * A parsed line; {@code entry} is null for lines that carry no alias, such as a CSV header.
+     */
+    record ParsedLine(Map.Entry<String, String> entry) {
+        static final ParsedLine SKIP = new ParsedLine(null);
+    }
+}
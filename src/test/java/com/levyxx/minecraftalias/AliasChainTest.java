@@ -0,0 +1,117 @@
+package com.levyxx.minecraftalias;
+
+import com.levyxx.minecraftalias.storage.YamlAliasStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AliasChainTest {
+    private static final Logger LOGGER = Logger.getLogger("AliasChainTest");
+
+    @TempDir
+    Path folder;
+
+    private AliasManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = newManager();
+        manager.reload();
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    void followsChainsToTheEnd() {
+        add("h", "home");
+        add("home", "tp @s 0 64 0");
+
+        assertEquals("tp @s 0 64 0", resolve("h"));
+        assertEquals("tp @s 0 64 0 fast", resolve("H fast"));
+    }
+
+    @Test
+    void trailingArgumentsCanSelectALongerAlias() {
+        add("menu", "open");
+        add("open", "say open");
+        add("open shop", "say shop $1");
+
+        assertEquals("say open", resolve("menu"));
+        assertEquals("say shop", resolve("menu shop"));
+        assertEquals("say shop cheap", resolve("menu shop cheap"));
+        assertEquals("say open other", resolve("menu other"));
+    }
+
+    @Test
+    void chainsThroughPatternAliases() {
+        add("go {where}", "warp {where}");
+        add("warp spawn", "tp @s 0 64 0");
+        add("sp", "go spawn");
+
+        assertEquals("tp @s 0 64 0", resolve("sp"));
+        assertEquals("tp @s 0 64 0", resolve("go spawn"));
+        assertEquals("warp mine", resolve("go mine"));
+    }
+
+    @Test
+    void rejectsAliasesThatWouldLoop() {
+        add("a", "b");
+        add("b", "c");
+
+        assertEquals(List.of("c", "a", "b"), manager.findCycle("c", "a now"));
+        assertEquals(AliasManager.AddResult.CYCLE, manager.addAlias("c", "a now"));
+        assertEquals(AliasManager.AddResult.CYCLE, manager.addAlias("self", "self"));
+        assertEquals(AliasManager.AddResult.ADDED, manager.addAlias("c", "say a"));
+        assertEquals("say a", resolve("a"));
+    }
+
+    @Test
+    void rejectsLoopsThroughSlots() {
+        add("p {x}", "q {x}");
+
+        assertEquals(AliasManager.AddResult.CYCLE, manager.addAlias("q {y:int}", "p {y}"));
+        assertEquals(AliasManager.AddResult.ADDED, manager.addAlias("q {y:int}", "say {y}"));
+        assertEquals("say 5", resolve("p 5"));
+    }
+
+    @Test
+    void skipsLoopsOnImportAndLoad() throws IOException {
+        add("a", "b");
+        AliasManager.ImportResult result = manager.importAliases(List.of(Map.entry("b", "a"), Map.entry("c", "say c")));
+        assertEquals(1, result.added());
+        assertEquals(1, result.cyclic().size());
+        manager.close();
+
+        Files.writeString(folder.resolve("config.yml"), "aliases:\n  x: y\n  y: x\n  z: say z\n");
+        manager = newManager();
+        manager.reload();
+        assertEquals(2, manager.size());
+        assertTrue(manager.getAlias("z").isPresent());
+    }
+
+    private AliasManager newManager() {
+        return new AliasManager(new YamlAliasStorage(folder.resolve("config.yml").toFile(), LOGGER, 0L), LOGGER);
+    }
+
+    private void add(String alias, String command) {
+        assertEquals(AliasManager.AddResult.ADDED, manager.addAlias(alias, command));
+    }
+
+    private String resolve(String command) {
+        return manager.resolveCommand(CommandTokens.of(command)).orElseThrow();
+    }
+}
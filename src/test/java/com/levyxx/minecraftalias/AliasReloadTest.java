@@ -0,0 +1,68 @@
+package com.levyxx.minecraftalias;
+
+import com.levyxx.minecraftalias.storage.ScopedAliasStorage;
+import com.levyxx.minecraftalias.storage.YamlAliasStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AliasReloadTest {
+    private static final Logger LOGGER = Logger.getLogger("AliasReloadTest");
+    private static final String BROKEN = "hot-reload:\n  enabled: true\naliases:\n  gm 1: gamemode creative\n  spawn: [tp @s 0 64 0\n";
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void brokenConfigKeepsAliases() throws IOException {
+        Path config = folder.resolve("config.yml");
+        Files.writeString(config, "hot-reload:\n  enabled: true\naliases:\n  gm 1: gamemode creative\n  spawn: tp @s 0 64 0\n");
+        AliasManager manager = new AliasManager(new YamlAliasStorage(config.toFile(), LOGGER, 0L), LOGGER);
+        try {
+            manager.reload();
+            assertEquals(2, manager.size());
+
+            Files.writeString(config, BROKEN);
+            assertTrue(manager.reload().isEmpty());
+            assertEquals(2, manager.size());
+            assertTrue(manager.getAlias("spawn").isPresent());
+
+            manager.addAlias("gamemode survival", "gm 0");
+            manager.flush();
+            assertEquals(BROKEN, Files.readString(config));
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    void brokenLayerFileKeepsLayer() throws IOException {
+        Path groups = folder.resolve("scopes").resolve("groups");
+        Files.createDirectories(groups);
+        Path layer = groups.resolve("vip.yml");
+        Files.writeString(layer, "aliases:\n  home: tp @s 0 64 0\n");
+        AliasScope vip = AliasScope.group("vip").orElseThrow();
+        AliasManager manager = new AliasManager(new YamlAliasStorage(folder.resolve("config.yml").toFile(), LOGGER, 0L),
+                new ScopedAliasStorage(folder.resolve("scopes"), LOGGER, 0L), LOGGER);
+        try {
+            manager.reload();
+            assertEquals(1, manager.listAliases(vip).size());
+
+            Files.writeString(layer, BROKEN);
+            assertTrue(manager.reloadScope(vip).isEmpty());
+            assertEquals(1, manager.listAliases(vip).size());
+
+            manager.reload();
+            assertEquals(1, manager.listAliases(vip).size());
+        } finally {
+            manager.close();
+        }
+    }
+}
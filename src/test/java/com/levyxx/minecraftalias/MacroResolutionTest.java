@@ -0,0 +1,71 @@
+package com.levyxx.minecraftalias;
+
+import com.levyxx.minecraftalias.AliasManager.Resolution;
+import com.levyxx.minecraftalias.macros.MacroScript;
+import com.levyxx.minecraftalias.storage.YamlAliasStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MacroResolutionTest {
+    private static final Logger LOGGER = Logger.getLogger("MacroResolutionTest");
+
+    @TempDir
+    Path folder;
+
+    private AliasManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new AliasManager(new YamlAliasStorage(folder.resolve("config.yml").toFile(), LOGGER, 0L), LOGGER);
+        manager.reload();
+        assertEquals(AliasManager.AddResult.ADDED, manager.addAlias("gm", "gamemode"));
+        assertEquals(AliasManager.AddResult.ADDED, manager.addAlias("greet", "say hi ; say bye $*"));
+        assertEquals(AliasManager.AddResult.ADDED, manager.addAlias("tell {msg:rest}", "say {msg} ; say done"));
+        assertEquals(AliasManager.AddResult.ADDED, manager.addAlias("hello", "greet"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    void typedSeparatorsDoNotMakeAMacro() {
+        Resolution resolution = resolve("gm ; greet ; greet");
+        assertFalse(resolution.macro());
+        assertEquals("gamemode ; greet ; greet", resolution.command());
+    }
+
+    @Test
+    void storedSeparatorsMakeAMacro() {
+        Resolution resolution = resolve("greet Steve");
+        assertTrue(resolution.macro());
+        assertFalse(resolution.typedSteps());
+        assertEquals(2, MacroScript.parse(resolution.command()).orElseThrow().size());
+
+        assertTrue(resolve("hello").macro());
+    }
+
+    @Test
+    void typedStepTokensAreRejectedInMacros() {
+        assertTrue(resolve("greet ; op Steve").typedSteps());
+        assertTrue(resolve("greet @wait 20").typedSteps());
+        assertTrue(resolve("tell a ; op Steve").typedSteps());
+        assertTrue(resolve("hello ; op Steve").typedSteps());
+        assertTrue(manager.resolveCommand(CommandTokens.of("greet ; op Steve")).isEmpty());
+        assertFalse(resolve("tell a;b").typedSteps());
+    }
+
+    private Resolution resolve(String command) {
+        return manager.aliasesFor(null).resolve(CommandTokens.of(command)).orElseThrow();
+    }
+}
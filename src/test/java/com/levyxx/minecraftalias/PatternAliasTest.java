@@ -0,0 +1,105 @@
+package com.levyxx.minecraftalias;
+
+import com.levyxx.minecraftalias.fixtures.StubServer;
+import com.levyxx.minecraftalias.storage.YamlAliasStorage;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class PatternAliasTest {
+    private static final Logger LOGGER = Logger.getLogger("PatternAliasTest");
+
+    @TempDir
+    Path folder;
+
+    private AliasManager manager;
+    private Player player;
+
+    @BeforeEach
+    void setUp() {
+        StubServer server = new StubServer(LOGGER);
+        player = server.player("Steve");
+        server.player("Alex");
+        manager = new AliasManager(new YamlAliasStorage(folder.resolve("config.yml").toFile(), LOGGER, 0L), LOGGER);
+        manager.reload();
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    void literalComesBeforeSlotsInTypeOrder() {
+        add("pick {all:rest}", "say rest {all}");
+        add("pick {name}", "say word {name}");
+        add("pick {target:player}", "say player {target}");
+        add("pick {count:int}", "say int {count}");
+        add("pick here", "say literal");
+        add("drop {count:int}", "say int {count}");
+        add("drop {all:rest}", "say rest {all}");
+
+        assertEquals("say literal", resolve("pick here"));
+        assertEquals("say literal", resolve("PICK Here"));
+        assertEquals("say int -12", resolve("pick -12"));
+        assertEquals("say player alex", resolve("pick alex"));
+        assertEquals("say word stone", resolve("pick stone"));
+        assertEquals("say word stone and dirt", resolve("pick stone and dirt"));
+        assertEquals("say int 5", resolve("drop 5"));
+        assertEquals("say rest five stones", resolve("drop five stones"));
+    }
+
+    @Test
+    void playerSlotsNeedASender() {
+        add("pick {target:player}", "say player {target}");
+        add("pick {name}", "say word {name}");
+
+        assertEquals("say player Alex", resolve("pick Alex"));
+        assertEquals("say word Alex", manager.resolveCommand(CommandTokens.of("pick Alex")).orElseThrow());
+    }
+
+    @Test
+    void slotsOnlyMatchTheirType() {
+        add("give {count:int}", "give @s stone {count}");
+
+        assertEquals("give @s stone 64", resolve("give 64"));
+        assertFalse(manager.findAlias(CommandTokens.of("give many"), player).isPresent());
+    }
+
+    @Test
+    void rendersSlotsByName() {
+        add("tpa {target:player} {note}", "tp {TARGET} ; say {note} {missing}");
+
+        assertEquals("tp Alex ; say hi {missing}", resolve("tpa Alex hi"));
+    }
+
+    @Test
+    void rendersPositionalArguments() {
+        add("pay", "eco give $2 $1");
+        add("shout", "say [$*]");
+        add("tell", "msg $1");
+
+        assertEquals("eco give Alex 100", resolve("pay 100 Alex"));
+        assertEquals("eco give Alex 100 extra", resolve("pay 100 Alex extra"));
+        assertEquals("eco give 100", resolve("pay 100"));
+        assertEquals("say [hello there]", resolve("shout hello there"));
+        assertEquals("msg Alex hi there", resolve("tell Alex hi there"));
+        assertEquals("msg Steve", resolve("tell Steve"));
+    }
+
+    private void add(String alias, String command) {
+        assertEquals(AliasManager.AddResult.ADDED, manager.addAlias(alias, command));
+    }
+
+    private String resolve(String command) {
+        return manager.resolveCommand(CommandTokens.of(command), player).orElseThrow();
+    }
+}
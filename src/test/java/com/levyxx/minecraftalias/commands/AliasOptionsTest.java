@@ -0,0 +1,96 @@
+package com.levyxx.minecraftalias.commands;
+
+import com.levyxx.minecraftalias.AliasManager;
+import com.levyxx.minecraftalias.AliasManager.AliasRecord;
+import com.levyxx.minecraftalias.AliasScope;
+import com.levyxx.minecraftalias.storage.ScopedAliasStorage;
+import com.levyxx.minecraftalias.storage.YamlAliasStorage;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AliasOptionsTest {
+    private static final Logger LOGGER = Logger.getLogger("AliasOptionsTest");
+
+    @TempDir
+    Path folder;
+
+    private AliasManager manager;
+    private AliasCommand command;
+    private final List<String> messages = new ArrayList<>();
+    private final CommandSender sender = (CommandSender) Proxy.newProxyInstance(CommandSender.class.getClassLoader(),
+            new Class<?>[] {CommandSender.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "sendMessage" -> {
+                    messages.add((String) args[0]);
+                    yield null;
+                }
+                case "hasPermission" -> true;
+                case "getName" -> "CONSOLE";
+                default -> null;
+            });
+
+    @BeforeEach
+    void setUp() {
+        manager = new AliasManager(new YamlAliasStorage(folder.resolve("config.yml").toFile(), LOGGER, 0L),
+                new ScopedAliasStorage(folder.resolve("scopes"), LOGGER, 0L), LOGGER);
+        manager.reload();
+        Plugin plugin = (Plugin) Proxy.newProxyInstance(Plugin.class.getClassLoader(), new Class<?>[] {Plugin.class},
+                (proxy, method, args) -> null);
+        command = new AliasCommand(plugin, manager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    void readsOptionsBeforeTheCommand() {
+        run("add", "--scope", "group:vip", "--COOLDOWN", "30s", "--rate", "3/1m", "tp", "@s", "0", "64", "0", "by", "home");
+
+        AliasRecord record = manager.listAliases(AliasScope.group("vip").orElseThrow()).get(0);
+        assertEquals("home", record.alias());
+        assertEquals("tp @s 0 64 0", record.target());
+        assertEquals(30_000L, record.limit().cooldownMillis());
+        assertEquals(3, record.limit().rateCount());
+        assertTrue(manager.getAlias("home").isEmpty());
+    }
+
+    @Test
+    void keepsOptionsInsideTheCommand() {
+        run("add", "tell", "x", "--scope", "me", "--cooldown", "5s", "by", "t", "--rate");
+
+        AliasRecord record = manager.getAlias("t --rate").orElseThrow();
+        assertEquals("tell x --scope me --cooldown 5s", record.target());
+        assertTrue(record.limit().isNone());
+    }
+
+    @Test
+    void rejectsUnknownLeadingOptions() {
+        run("add", "--player", "Steve", "say", "hi", "by", "hi");
+        assertTrue(messages.get(0).contains("--player"), messages.get(0));
+        assertEquals(0, manager.size());
+
+        messages.clear();
+        run("add", "say", "hi", "by", "hi");
+        run("remove", "--cooldown", "5s", "hi");
+        assertTrue(messages.get(1).contains("--cooldown"), messages.get(1));
+        assertEquals(1, manager.size());
+    }
+
+    private void run(String... args) {
+        command.onCommand(sender, null, "alias", args);
+    }
+}
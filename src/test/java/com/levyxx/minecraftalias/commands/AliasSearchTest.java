@@ -0,0 +1,92 @@
+package com.levyxx.minecraftalias.commands;
+
+import com.levyxx.minecraftalias.AliasManager;
+import com.levyxx.minecraftalias.storage.YamlAliasStorage;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AliasSearchTest {
+    private static final Logger LOGGER = Logger.getLogger("AliasSearchTest");
+
+    @TempDir
+    Path folder;
+
+    private AliasManager manager;
+    private AliasCommand command;
+    private final List<String> messages = new ArrayList<>();
+    private final CommandSender sender = (CommandSender) Proxy.newProxyInstance(CommandSender.class.getClassLoader(),
+            new Class<?>[] {CommandSender.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "sendMessage" -> {
+                    messages.add((String) args[0]);
+                    yield null;
+                }
+                case "hasPermission" -> true;
+                case "getName" -> "CONSOLE";
+                default -> null;
+            });
+
+    @BeforeEach
+    void setUp() {
+        manager = new AliasManager(new YamlAliasStorage(folder.resolve("config.yml").toFile(), LOGGER, 0L), LOGGER);
+        manager.reload();
+        for (int i = 0; i < 25; i++) {
+            manager.addAlias("warp w" + i, "tp @s " + i + " 64 " + i);
+        }
+        manager.addAlias("spawn", "warp w1");
+        manager.addAlias("home", "--cooldown 30s tp @s 0 64 0");
+        Plugin plugin = (Plugin) Proxy.newProxyInstance(Plugin.class.getClassLoader(), new Class<?>[] {Plugin.class},
+                (proxy, method, args) -> null);
+        command = new AliasCommand(plugin, manager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    void matchesAcrossTokensIgnoringCase() {
+        assertEquals(12, manager.searchAliases("WARP W1").size());
+        assertEquals(6, manager.searchAliases("rp   w2 ").size());
+        assertEquals(List.of("warp w1"), aliases(manager.searchAliases("S 1 64 1")));
+        assertEquals(List.of("home"), aliases(manager.searchAliases("cooldown 30S tp")));
+        assertEquals(0, manager.searchAliases("w1 tp").size());
+    }
+
+    @Test
+    void pagesSearchResults() {
+        command.onCommand(sender, null, "alias", new String[] {"search", "warp", "w1"});
+        assertTrue(messages.get(0).contains("(1/2)"), messages.get(0));
+        assertEquals(12, messages.size());
+        assertTrue(messages.get(1).contains("/spawn"), messages.get(1));
+        assertTrue(messages.get(11).contains("/alias search warp w1 2"), messages.get(11));
+
+        messages.clear();
+        command.onCommand(sender, null, "alias", new String[] {"search", "warp", "w1", "2"});
+        assertTrue(messages.get(0).contains("(2/2)"), messages.get(0));
+        assertEquals(3, messages.size());
+        assertTrue(messages.get(1).contains("/warp w18"), messages.get(1));
+        assertTrue(messages.get(2).contains("/warp w19"), messages.get(2));
+
+        messages.clear();
+        command.onCommand(sender, null, "alias", new String[] {"search", "warp", "w1", "5"});
+        assertTrue(messages.get(1).contains("(2/2)"), messages.get(1));
+    }
+
+    private static List<String> aliases(List<AliasManager.AliasRecord> records) {
+        return records.stream().map(AliasManager.AliasRecord::alias).toList();
+    }
+}
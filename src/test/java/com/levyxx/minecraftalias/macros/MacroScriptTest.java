@@ -0,0 +1,41 @@
+package com.levyxx.minecraftalias.macros;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MacroScriptTest {
+    @Test
+    void splitsOnStandaloneSeparators() {
+        assertEquals(Optional.of(List.of(new MacroStep("say a;b", 0), new MacroStep("say c", 0))),
+                MacroScript.parse("say a;b ; say c"));
+        assertTrue(MacroScript.isMacro("say a ; say b"));
+        assertTrue(MacroScript.isMacro("; say b"));
+        assertFalse(MacroScript.isMacro("say a;b"));
+        assertFalse(MacroScript.isMacro("say ;a"));
+    }
+
+    @Test
+    void foldsWaitsIntoTheNextStep() {
+        assertEquals(Optional.of(List.of(new MacroStep("say 3", 0), new MacroStep("say 2", 30), new MacroStep("say 1", 0))),
+                MacroScript.parse("say 3 ; @wait 20 ; @wait 10 ; say 2 ; say 1"));
+        assertEquals(Optional.of(List.of(new MacroStep("say go", 5))), MacroScript.parse("@wait 5 ; say go"));
+    }
+
+    @Test
+    void rejectsMalformedMacros() {
+        assertEquals(Optional.empty(), MacroScript.parse("say a ; ; say b"));
+        assertEquals(Optional.empty(), MacroScript.parse("say a ;"));
+        assertEquals(Optional.empty(), MacroScript.parse("say a ; @wait 20"));
+        assertEquals(Optional.empty(), MacroScript.parse("say a ; @wait soon ; say b"));
+        assertEquals(Optional.empty(), MacroScript.parse("say a ; @wait -1 ; say b"));
+        assertEquals(Optional.empty(), MacroScript.parse("say a ; @wait ; say b"));
+        assertEquals(Optional.empty(), MacroScript.parse("say a ; @wait " + (MacroScript.MAX_WAIT_TICKS + 1) + " ; say b"));
+        assertEquals(Optional.empty(), MacroScript.parse("@wait 40000 ; @wait 40000 ; say b"));
+    }
+}
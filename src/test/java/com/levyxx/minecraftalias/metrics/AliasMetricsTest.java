@@ -0,0 +1,70 @@
+package com.levyxx.minecraftalias.metrics;
+
+import com.levyxx.minecraftalias.AliasManager;
+import com.levyxx.minecraftalias.AliasManager.AliasRecord;
+import com.levyxx.minecraftalias.AliasScope;
+import com.levyxx.minecraftalias.CommandTokens;
+import com.levyxx.minecraftalias.storage.ScopedAliasStorage;
+import com.levyxx.minecraftalias.storage.YamlAliasStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AliasMetricsTest {
+    private static final Logger LOGGER = Logger.getLogger("AliasMetricsTest");
+
+    @TempDir
+    Path folder;
+
+    private AliasManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new AliasManager(new YamlAliasStorage(folder.resolve("config.yml").toFile(), LOGGER, 0L),
+                new ScopedAliasStorage(folder.resolve("scopes"), LOGGER, 0L), LOGGER);
+        manager.reload();
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    void keepsCountersWhileAnotherScopeDefinesTheAlias() {
+        AliasScope vip = AliasScope.group("vip").orElseThrow();
+        manager.addAlias("home", "tp @s 0 64 0");
+        manager.addAlias(vip, "home", "tp @s 100 64 100");
+        manager.resolveCommand(CommandTokens.of("home"));
+        manager.resolveCommand(CommandTokens.of("home"));
+        AliasRecord scoped = manager.listAliases(vip).get(0);
+
+        manager.removeAlias("home");
+        assertEquals(2L, manager.metrics().hits(scoped));
+
+        manager.removeAlias(vip, "home");
+        assertEquals(0L, manager.metrics().hits(scoped));
+    }
+
+    @Test
+    void reloadKeepsCountersOfScopedAliases() throws IOException {
+        AliasScope vip = AliasScope.group("vip").orElseThrow();
+        manager.addAlias("home", "tp @s 0 64 0");
+        manager.addAlias(vip, "home", "tp @s 100 64 100");
+        manager.resolveCommand(CommandTokens.of("home"));
+        manager.flush();
+        AliasRecord scoped = manager.listAliases(vip).get(0);
+
+        Files.writeString(folder.resolve("config.yml"), "aliases:\n  spawn: tp @s 0 64 0\n");
+        manager.reload();
+        assertEquals(1L, manager.metrics().hits(scoped));
+    }
+}
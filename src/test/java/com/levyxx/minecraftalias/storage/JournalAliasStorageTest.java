@@ -0,0 +1,68 @@
+package com.levyxx.minecraftalias.storage;
+
+import com.levyxx.minecraftalias.AliasManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalAliasStorageTest {
+    private static final Logger LOGGER = Logger.getLogger("JournalAliasStorageTest");
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void replaysJournalOfTheSnapshotGeneration() throws IOException {
+        Files.writeString(folder.resolve("aliases.snapshot"), "#generation 3\n+\tgo\thome\n+\tspawn\ttp @s 0 64 0\n");
+        Files.writeString(folder.resolve("aliases.journal"), "#generation 3\n-\tGO\n+\tw\twarp\n");
+
+        assertEquals(Map.of("spawn", "tp @s 0 64 0", "w", "warp"), load());
+    }
+
+    @Test
+    void ignoresJournalOfAStaleGeneration() throws IOException {
+        Files.writeString(folder.resolve("aliases.snapshot"), "#generation 3\n+\tgo\thome\n");
+        Files.writeString(folder.resolve("aliases.journal"), "#generation 2\n-\tgo\n+\told\tstale\n");
+
+        assertEquals(Map.of("go", "home"), load());
+    }
+
+    @Test
+    void restartsStaleJournalOnTheNextAppend() throws IOException {
+        Files.writeString(folder.resolve("aliases.snapshot"), "#generation 3\n+\tgo\thome\n");
+        Files.writeString(folder.resolve("aliases.journal"), "#generation 2\n+\told\tstale\n");
+
+        AliasManager manager = new AliasManager(storage(), LOGGER);
+        try {
+            manager.reload();
+            assertEquals(AliasManager.AddResult.ADDED, manager.addAlias("w", "warp"));
+            manager.flush();
+        } finally {
+            manager.close();
+        }
+
+        assertTrue(Files.readString(folder.resolve("aliases.snapshot")).startsWith("#generation 4\n"));
+        assertEquals(Map.of("go", "home", "w", "warp"), load());
+    }
+
+    private Map<String, String> load() throws IOException {
+        JournalAliasStorage storage = storage();
+        try {
+            return storage.load().entries();
+        } finally {
+            storage.close();
+        }
+    }
+
+    private JournalAliasStorage storage() {
+        return new JournalAliasStorage(folder.toFile(), LOGGER, new YamlAliasStorage(folder.resolve("config.yml").toFile(), LOGGER, 0L), 100);
+    }
+}